@@ -0,0 +1,54 @@
+package com.starksign;
+
+
+/**
+ * Payloads shared by the benchmarks
+ */
+public final class Fixtures {
+
+    private Fixtures() {}
+
+    /**
+     * HTML document with about the given number of characters
+     */
+    public static String html(int size) {
+        StringBuilder html = new StringBuilder(size + 64);
+        html.append("<meta charset='utf-8'><page size='A4'>");
+        String paragraph = "<p>Contrato de presta\u00e7\u00e3o de servi\u00e7os entre as partes abaixo assinadas.</p>";
+        while (html.length() < size) {
+            html.append(paragraph);
+        }
+        return html.append("</page>").toString();
+    }
+
+    /**
+     * Document JSON as returned by GET /document/:id, with three signers and two signatures
+     */
+    public static String documentJson(int contentSize) {
+        StringBuilder json = new StringBuilder(contentSize + 4096);
+        json.append("{\"document\": {\"id\": \"5155165527080960\", \"status\": \"pending\", \"content\": \"")
+            .append(html(contentSize))
+            .append("\", \"signers\": [");
+        for (int i = 0; i < 3; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"id\": \"678567856785678").append(i).append("\", \"name\": \"Edward Stark\", ")
+                .append("\"contact\": \"edward@starksign.com\", \"method\": \"token\", \"isSent\": true, ")
+                .append("\"status\": \"pending\", \"documentId\": \"5155165527080960\", \"tags\": [\"contract\", \"2022\"], ")
+                .append("\"created\": \"2022-09-07T18:00:00.000000+00:00\", \"updated\": \"2022-09-07T18:00:00.000000+00:00\"}");
+        }
+        json.append("], \"signatures\": [");
+        for (int i = 0; i < 2; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"signerId\": \"678567856785678").append(i).append("\", \"name\": \"Edward Stark\", ")
+                .append("\"contact\": \"edward@starksign.com\", ")
+                .append("\"signature\": \"MEUCIQD6cymQq40/06XuIelkv2t9qd9rPACooRH8faCB8SuPIQIgOqIil/1Vm/jni8eTDsoO5ytdoDitZocm3KSLzUYHCrQ=\", ")
+                .append("\"publicKey\": \"-----BEGIN PUBLIC KEY-----\\nMFYwEAYHKoZIzj0CAQYFK4EEAAoDQgAEgHEBU5JNNgoJ1pWNUaEM7PvRbDvvNw3W\\n+rZPqVhor/2vEqB5+fpYjTQp3EdGlKtEtSizeHsL9Vwm5MSt3CQrzA==\\n-----END PUBLIC KEY-----\", ")
+                .append("\"ip\": \"2804:14c:6a:85d3:b8a3:ddb4:a4e9:e11e\", \"created\": \"2022-09-07T18:00:00.000000+00:00\"}");
+        }
+        return json.append("]}}").toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.starksign;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Document.sign() without the request: content hashing and ECDSA signing, for server (private key)
+ * and token signers. Signer keys are cached by the SDK, so this measures the steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignDataBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int contentSize;
+
+    private String content;
+    private String privateKey;
+
+    @Setup
+    public void setUp() {
+        content = Fixtures.html(contentSize);
+        privateKey = new PrivateKey().toPem();
+    }
+
+    @Benchmark
+    public Document.SignData privateKey() throws IOException {
+        return new Document.SignData("5155165527080960", content, "6785678567856785", privateKey, null);
+    }
+
+    @Benchmark
+    public Document.SignData token() throws IOException {
+        return new Document.SignData("5155165527080960", content, "6785678567856785", null, "a8B1kxJ");
+    }
+}
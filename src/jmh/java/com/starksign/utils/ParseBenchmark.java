@@ -0,0 +1,71 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.Fixtures;
+import com.starksign.Instrumentation;
+import com.starksign.SignatureRequest;
+import com.starksign.StarkSignClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Webhook verification with the public key cache already loaded, so no request is sent.
+ * Two keys are cached, as after a key rotation, and the matching one is listed second. Only the first invocation
+ * tries the other key: from then on the cache's lastVerified hint tries the matching key first, so this measures
+ * the steady state after a rotation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    @Param({"1024", "65536"})
+    public int contentSize;
+
+    private static final Resource.ClassData signatureRequest = new Resource.ClassData(SignatureRequest.class, "SignatureRequest");
+
+    private StarkSignClient client;
+    private String content;
+    private String signature;
+    private String request;
+    private String requestSignature;
+
+    @Setup
+    public void setUp() throws Exception {
+        client = StarkSignClient.builder().environment("sandbox").build();
+        PrivateKey starkKey = new PrivateKey();
+        List<EcdsaVerifier> keys = Arrays.asList(
+            new EcdsaVerifier(new PrivateKey().publicKey()),
+            new EcdsaVerifier(starkKey.publicKey())
+        );
+        PublicKeyCache.of(client.baseUrl).get(client.publicKeyTtlSeconds, () -> keys, Instrumentation.NOOP);
+
+        EcdsaSigner signer = new EcdsaSigner(starkKey);
+        content = Fixtures.html(contentSize);
+        signature = signer.sign(content).toBase64();
+        request = "{\"signerId\": \"6785678567856785\", \"documentId\": \"5155165527080960\", \"privateKey\": \""
+            + new PrivateKey().toPem().replace("\n", "\\n") + "\"}";
+        requestSignature = signer.sign(request).toBase64();
+    }
+
+    @Benchmark
+    public String verify() throws Exception {
+        return Parse.verify(content, signature, client);
+    }
+
+    @Benchmark
+    public SignatureRequest parseAndVerify() throws Exception {
+        return Parse.parseAndVerify(signatureRequest, request, requestSignature, client);
+    }
+}
@@ -0,0 +1,51 @@
+package com.starksign.utils;
+
+import com.starksign.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Pieces of every request: query string, endpoint path and resource name conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestBuildingBenchmark {
+
+    private static final Resource.ClassData document = new Resource.ClassData(Document.class, "Document");
+
+    private final Map<String, Object> query = new HashMap<>();
+
+    {
+        query.put("limit", 5);
+        query.put("status", "pending");
+        query.put("tags", Arrays.asList("contract", "2022 renewal"));
+        query.put("after", null);
+    }
+
+    @Benchmark
+    public StringBuilder encodeQuery() throws UnsupportedEncodingException {
+        return Url.encode(query);
+    }
+
+    @Benchmark
+    public String camelToKebab() {
+        return Case.camelToKebab("SignatureRequest");
+    }
+
+    @Benchmark
+    public String endpoint() {
+        return Api.endpoint(document, "5155165527080960");
+    }
+}
@@ -0,0 +1,44 @@
+package com.starksign.utils;
+
+import com.starksign.Document;
+import com.starksign.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Binding of a GET /document/:id response body, from bytes to a Document with its signers and signatures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RestBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int contentSize;
+
+    private static final Resource.ClassData document = new Resource.ClassData(Document.class, "Document");
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        body = Fixtures.documentJson(contentSize).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Document bindDocument() throws IOException {
+        return Rest.bindEntity(document, new Response(200, new ByteArrayInputStream(body)));
+    }
+}
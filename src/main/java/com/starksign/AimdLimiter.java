@@ -0,0 +1,153 @@
+package com.starksign;
+
+import java.util.concurrent.TimeUnit;
+
+
+public final class AimdLimiter implements Limiter {
+    /**
+     * AimdLimiter object
+     * <p>
+     * Limits the number of requests in flight with a limit that adapts to the API's health:
+     * every fast and successful request raises it additively (by about 1 per limit's worth of requests),
+     * while every request slower than latencyThresholdMillis, answered with 429 or 503, or timed out
+     * multiplies it by backoffRatio. Callers over the limit wait for a request to finish.
+     * <p>
+     * Parameters:
+     * initialLimit           [int, default 10]: limit before any request is measured
+     * minLimit               [int, default 1]: the limit never drops below this value
+     * maxLimit               [int, default 200]: the limit never grows above this value
+     * latencyThresholdMillis [long, default 2000]: requests slower than this are treated as a sign of overload
+     * backoffRatio           [double, default 0.9]: factor applied to the limit on overload. ex: 0.5 halves it
+     */
+    public final int minLimit;
+    public final int maxLimit;
+    public final long latencyThresholdMillis;
+    public final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+    private double limit;
+    private int inFlight;
+
+    private AimdLimiter(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.latencyThresholdMillis = builder.latencyThresholdMillis;
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.limit = builder.initialLimit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Current concurrency limit
+     */
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Number of requests holding a permit
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public synchronized Permit acquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return take();
+    }
+
+    @Override
+    public synchronized Permit tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return null;
+        }
+        return take();
+    }
+
+    private Permit take() {
+        inFlight++;
+        return new Permit() {
+            @Override
+            public void release(long latencyNanos, boolean overloaded) {
+                onRelease(latencyNanos, overloaded);
+            }
+
+            @Override
+            public void cancel() {
+                onCancel();
+            }
+        };
+    }
+
+    private synchronized void onRelease(long latencyNanos, boolean overloaded) {
+        inFlight--;
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    private synchronized void onCancel() {
+        inFlight--;
+        notifyAll();
+    }
+
+    public static final class Builder {
+        private int initialLimit = 10;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private long latencyThresholdMillis = 2000;
+        private double backoffRatio = 0.9;
+
+        private Builder() {}
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Builder latencyThresholdMillis(long latencyThresholdMillis) {
+            this.latencyThresholdMillis = latencyThresholdMillis;
+            return this;
+        }
+
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public AimdLimiter build() {
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+            }
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+            }
+            return new AimdLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.starksign;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Limiter built by Limiter.all(): a permit is only given once every limiter gives one, acquired in order.
+ * Permits already taken are cancelled when a later limiter refuses.
+ */
+final class AllLimiter implements Limiter {
+    private final List<Limiter> limiters;
+
+    AllLimiter(List<Limiter> limiters) {
+        this.limiters = new ArrayList<>(limiters);
+    }
+
+    @Override
+    public Permit acquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        List<Permit> permits = new ArrayList<>(limiters.size());
+        for (Limiter limiter : limiters) {
+            long remainingMillis = Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+            Permit permit;
+            try {
+                permit = limiter.acquire(remainingMillis);
+            } catch (InterruptedException e) {
+                permits.forEach(Permit::cancel);
+                throw e;
+            }
+            if (permit == null) {
+                permits.forEach(Permit::cancel);
+                return null;
+            }
+            permits.add(permit);
+        }
+        return new AllPermit(permits);
+    }
+
+    @Override
+    public Permit tryAcquire() {
+        List<Permit> permits = new ArrayList<>(limiters.size());
+        for (Limiter limiter : limiters) {
+            Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                permits.forEach(Permit::cancel);
+                return null;
+            }
+            permits.add(permit);
+        }
+        return new AllPermit(permits);
+    }
+
+    private static final class AllPermit implements Permit {
+        private final List<Permit> permits;
+
+        private AllPermit(List<Permit> permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void release(long latencyNanos, boolean overloaded) {
+            for (Permit permit : permits) {
+                permit.release(latencyNanos, overloaded);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            permits.forEach(Permit::cancel);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.starksign;
+
+import com.starksign.utils.StringStore;
+
+
+public final class ContentStore extends StringStore {
+    /**
+     * ContentStore object
+     * <p>
+     * Opt-in store that keeps a single copy of each distinct Document content, identified by its SHA-256 digest.
+     * Documents retrieved by the SDK have their content replaced by the stored copy, so documents built from the
+     * same template share one String, in the DocumentCache or anywhere else they are retained. Signing a stored
+     * content reuses its digest instead of hashing it again; signing never adds contents to the store.
+     * When the stored contents add up to more than maxContentLength characters, the least recently used ones are
+     * forgotten; documents that still reference them are not affected.
+     * Assign it to Settings.contentStore while your application is booting.
+     * <p>
+     * Parameters:
+     * maxContentLength [long]: maximum number of content characters held by the store. ex: 50000000
+     */
+    public ContentStore(long maxContentLength) {
+        super(maxContentLength);
+    }
+}
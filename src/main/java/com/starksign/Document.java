@@ -1,20 +1,29 @@
 package com.starksign;
 
-import com.starkbank.ellipticcurve.utils.BinaryAscii;
-import com.starkbank.ellipticcurve.PrivateKey;
-import com.starkbank.ellipticcurve.Ecdsa;
-import com.starkbank.ellipticcurve.Curve;
+import com.starksign.utils.Batch;
+import com.starksign.utils.EcdsaSigner;
 import com.starksign.utils.SubResource;
 import com.starksign.utils.Resource;
 import com.starksign.utils.Rest;
 
-import java.security.NoSuchAlgorithmException;
-import java.security.MessageDigest;
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
 
 
 public final class Document extends Resource {
@@ -35,6 +44,7 @@ public final class Document extends Resource {
     public String status;
     public List<Signer> signers;
     public List<Signature> signatures;
+    private transient StarkSignClient contentClient;
 
     /**
      * Document object
@@ -85,7 +95,9 @@ public final class Document extends Resource {
     /**
      * Retrieve a specific Document
      * <p>
-     * Receive a single Document object previously created in the Stark Sign API by its id
+     * Receive a single Document object previously created in the Stark Sign API by its id.
+     * Every call returns its own Document, even when it is served from the DocumentCache or shares a request with
+     * concurrent calls, so it can be changed freely.
      * <p>
      * Parameters:
      * @param id [string]: object unique id. ex: "d186044b38be41598aaccfc5770b991a"
@@ -95,7 +107,194 @@ public final class Document extends Resource {
      * @throws Exception error in the request
      */
     public static Document get(String id) throws Exception {
-        return Rest.getId(data, id, new HashMap<>());
+        return get(id, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Retrieve a specific Document
+     * <p>
+     * Same as Document.get(), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param id [string]: object unique id. ex: "d186044b38be41598aaccfc5770b991a"
+     * @param client [StarkSignClient]: client used in the request
+     * <p>
+     * Return:
+     * @return Document object with updated attributes
+     * @throws Exception error in the request
+     */
+    public static Document get(String id, StarkSignClient client) throws Exception {
+        return Rest.<Document>getId(data, id, new HashMap<>(), client.documentCache, client, interner(client)).copy();
+    }
+
+    /**
+     * Retrieve only some fields of a specific Document
+     * <p>
+     * Same as Document.get(), but the API only sends the informed fields, so checking a document's status does not
+     * download its content. The other attributes are left null. If "content" is not among the fields, it can still
+     * be downloaded later with document.content().
+     * <p>
+     * Parameters:
+     * @param id [string]: object unique id. ex: "d186044b38be41598aaccfc5770b991a"
+     * @param fields [strings]: Document attributes to retrieve. ex: "status", "signers"
+     * <p>
+     * Return:
+     * @return Document object with the requested attributes
+     * @throws Exception error in the request
+     */
+    public static Document get(String id, String... fields) throws Exception {
+        return get(id, StarkSignClient.fromSettings(), fields);
+    }
+
+    /**
+     * Retrieve only some fields of a specific Document
+     * <p>
+     * Same as Document.get(id, fields), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param id [string]: object unique id. ex: "d186044b38be41598aaccfc5770b991a"
+     * @param client [StarkSignClient]: client used in the request
+     * @param fields [strings]: Document attributes to retrieve. ex: "status", "signers"
+     * <p>
+     * Return:
+     * @return Document object with the requested attributes
+     * @throws Exception error in the request
+     */
+    public static Document get(String id, StarkSignClient client, String... fields) throws Exception {
+        if (fields.length == 0) {
+            return get(id, client);
+        }
+        Set<String> fieldSet = new TreeSet<>(Arrays.asList(fields));
+        HashMap<String, Object> query = new HashMap<>();
+        query.put("fields", fieldSet);
+        Document document = Rest.<Document>getId(data, id, query, client.documentCache, client, interner(client)).copy();
+        if (!fieldSet.contains("content")) {
+            document.contentClient = client;
+        }
+        return document;
+    }
+
+    /**
+     * Document content, downloaded on first access
+     * <p>
+     * Documents retrieved with Document.get(id, fields) without the "content" field download their HTML content
+     * only when this method is first called, and keep it in document.content afterwards. For any other Document,
+     * this is the same as reading document.content.
+     * <p>
+     * Return:
+     * @return HTML content of the document
+     * @throws Exception error in the request
+     */
+    public synchronized String content() throws Exception {
+        StarkSignClient client = contentClient;
+        if (content != null || client == null) {
+            return content;
+        }
+        content = get(id, client, "content").content;
+        contentClient = null;
+        return content;
+    }
+
+    /**
+     * Retrieve a specific Document asynchronously
+     * <p>
+     * Same as Document.get(), but the request is sent without blocking the calling thread.
+     * <p>
+     * Parameters:
+     * @param id [string]: object unique id. ex: "d186044b38be41598aaccfc5770b991a"
+     * <p>
+     * Return:
+     * @return CompletableFuture that completes with the Document object or with the request error
+     */
+    public static CompletableFuture<Document> getAsync(String id) {
+        StarkSignClient client;
+        try {
+            client = StarkSignClient.fromSettings();
+        } catch (Exception e) {
+            return failed(e);
+        }
+        return getAsync(id, client);
+    }
+
+    /**
+     * Retrieve a specific Document asynchronously
+     * <p>
+     * Same as Document.getAsync(), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param id [string]: object unique id. ex: "d186044b38be41598aaccfc5770b991a"
+     * @param client [StarkSignClient]: client used in the request
+     * <p>
+     * Return:
+     * @return CompletableFuture that completes with the Document object or with the request error
+     */
+    public static CompletableFuture<Document> getAsync(String id, StarkSignClient client) {
+        return Rest.<Document>getIdAsync(data, id, new HashMap<>(), client.documentCache, client, interner(client))
+            .thenApply(Document::copy);
+    }
+
+    /**
+     * Retrieve several Documents
+     * <p>
+     * Receive many Document objects by their ids, with at most httpConfig.maxRequestsPerHost requests in flight.
+     * Repeated ids are requested only once, and ids already being requested by another thread join that request.
+     * <p>
+     * Parameters:
+     * @param ids [collection of strings]: object unique ids. ex: ["d186044b38be41598aaccfc5770b991a"]
+     * <p>
+     * Return:
+     * @return map from each distinct id to a Batch.Result with its Document object or request error, in the order of ids
+     * @throws Exception if Settings is invalid or the calling thread is interrupted while waiting
+     */
+    public static Map<String, Batch.Result<Document>> get(Collection<String> ids) throws Exception {
+        StarkSignClient client = StarkSignClient.fromSettings();
+        return get(ids, client.httpConfig.maxRequestsPerHost, client);
+    }
+
+    /**
+     * Retrieve several Documents
+     * <p>
+     * Receive many Document objects by their ids, with at most "concurrency" requests in flight.
+     * Repeated ids are requested only once, and ids already being requested by another thread join that request.
+     * <p>
+     * Parameters:
+     * @param ids [collection of strings]: object unique ids. ex: ["d186044b38be41598aaccfc5770b991a"]
+     * @param concurrency maximum number of requests in flight. ex: 16
+     * <p>
+     * Return:
+     * @return map from each distinct id to a Batch.Result with its Document object or request error, in the order of ids
+     * @throws Exception if Settings is invalid or the calling thread is interrupted while waiting
+     */
+    public static Map<String, Batch.Result<Document>> get(Collection<String> ids, int concurrency) throws Exception {
+        return get(ids, concurrency, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Retrieve several Documents
+     * <p>
+     * Same as Document.get(ids, concurrency), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param ids [collection of strings]: object unique ids. ex: ["d186044b38be41598aaccfc5770b991a"]
+     * @param concurrency maximum number of requests in flight. ex: 16
+     * @param client [StarkSignClient]: client used in the requests
+     * <p>
+     * Return:
+     * @return map from each distinct id to a Batch.Result with its Document object or request error, in the order of ids
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public static Map<String, Batch.Result<Document>> get(Collection<String> ids, int concurrency,
+                                                          StarkSignClient client) throws InterruptedException {
+        List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Batch.Result<Document>> results = Batch.run(uniqueIds, concurrency,
+            id -> Rest.<Document>getIdAsync(data, id, new HashMap<>(), client.documentCache, client, interner(client))
+                .thenApply(Document::copy)
+        );
+        Map<String, Batch.Result<Document>> documents = new LinkedHashMap<>();
+        for (int i = 0; i < uniqueIds.size(); i++) {
+            documents.put(uniqueIds.get(i), results.get(i));
+        }
+        return documents;
     }
 
     /**
@@ -107,7 +306,7 @@ public final class Document extends Resource {
      * @param data parameters to sign a document
      * Parameters (required):
      * id       [string]: ID of the Document that is being signed. ex: "d186044b38be41598aaccfc5770b991a"
-     * content  [string]: HTML content of the document that is being signed.
+     * content  [string, Reader or InputStream]: HTML content of the document that is being signed. Readers and UTF-8 InputStreams are hashed incrementally, so large documents are never fully held in memory.
      * signerId [string]: ID of the document Signer that is creating the Signature. ex: "6785678567856785"
      * <p>
      * Parameters (conditionally-required):
@@ -118,36 +317,245 @@ public final class Document extends Resource {
      * @throws Exception error in the request
      */
     public static Signature sign(HashMap<String, Object> data) throws Exception {
+        return sign(data, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Sign a specific Document
+     * <p>
+     * Same as Document.sign(), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param data parameters to sign a document, as described in Document.sign()
+     * @param client [StarkSignClient]: client used in the request
+     * <p>
+     * Return:
+     * @return Signature object
+     * @throws Exception error in the request
+     */
+    public static Signature sign(HashMap<String, Object> data, StarkSignClient client) throws Exception {
+        String documentId = (String) data.get("id");
+        Signature signature = Rest.postSubResource(Document.data, documentId, Signature.data, signData(data, client), client);
+        invalidate(documentId, client);
+        return signature;
+    }
+
+    /**
+     * Sign a specific Document asynchronously
+     * <p>
+     * Same as Document.sign(), but the Signature is sent to the API without blocking the calling thread.
+     * The ECDSA signature itself is still computed on the calling thread.
+     * <p>
+     * Parameters:
+     * @param data parameters to sign a document, as described in Document.sign()
+     * <p>
+     * Return:
+     * @return CompletableFuture that completes with the Signature object or with the request error
+     */
+    public static CompletableFuture<Signature> signAsync(HashMap<String, Object> data) {
+        StarkSignClient client;
+        try {
+            client = StarkSignClient.fromSettings();
+        } catch (Exception e) {
+            return failed(e);
+        }
+        return signAsync(data, client);
+    }
+
+    /**
+     * Sign a specific Document asynchronously
+     * <p>
+     * Same as Document.signAsync(), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param data parameters to sign a document, as described in Document.sign()
+     * @param client [StarkSignClient]: client used in the request
+     * <p>
+     * Return:
+     * @return CompletableFuture that completes with the Signature object or with the request error
+     */
+    public static CompletableFuture<Signature> signAsync(HashMap<String, Object> data, StarkSignClient client) {
         String documentId = (String) data.get("id");
-        SignData signData = new SignData(
-            documentId,
-            (String) data.get("content"),
+        SignData signData;
+        try {
+            signData = signData(data, client);
+        } catch (Exception e) {
+            return failed(e);
+        }
+        return Rest.<Signature>postSubResourceAsync(Document.data, documentId, Signature.data, signData, client)
+            .whenComplete((signature, error) -> invalidate(documentId, client));
+    }
+
+    /**
+     * Sign several Documents
+     * <p>
+     * Signs every item in parallel on the common ForkJoinPool and sends the Signatures to the API with at most
+     * httpConfig.maxRequestsPerHost requests in flight.
+     * <p>
+     * Parameters:
+     * @param data list of parameters to sign each document, as described in Document.sign()
+     * <p>
+     * Return:
+     * @return list of Batch.Result with the Signature object or the error of each item, in the same order as data
+     * @throws Exception if Settings is invalid or the calling thread is interrupted while waiting
+     */
+    public static List<Batch.Result<Signature>> signAll(List<HashMap<String, Object>> data) throws Exception {
+        StarkSignClient client = StarkSignClient.fromSettings();
+        return signAll(data, ForkJoinPool.commonPool(), client.httpConfig.maxRequestsPerHost, client);
+    }
+
+    /**
+     * Sign several Documents
+     * <p>
+     * Signs every item on the given executor and sends the Signatures to the API as soon as they are ready,
+     * keeping at most "concurrency" items being signed or sent at the same time.
+     * <p>
+     * Parameters:
+     * @param data list of parameters to sign each document, as described in Document.sign()
+     * @param executor executor that computes the ECDSA signatures. ex: ForkJoinPool.commonPool()
+     * @param concurrency maximum number of items being signed or sent at the same time. ex: 16
+     * <p>
+     * Return:
+     * @return list of Batch.Result with the Signature object or the error of each item, in the same order as data
+     * @throws Exception if Settings is invalid or the calling thread is interrupted while waiting
+     */
+    public static List<Batch.Result<Signature>> signAll(List<HashMap<String, Object>> data, Executor executor,
+                                                         int concurrency) throws Exception {
+        return signAll(data, executor, concurrency, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Sign several Documents
+     * <p>
+     * Same as Document.signAll(data, executor, concurrency), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param data list of parameters to sign each document, as described in Document.sign()
+     * @param executor executor that computes the ECDSA signatures. ex: ForkJoinPool.commonPool()
+     * @param concurrency maximum number of items being signed or sent at the same time. ex: 16
+     * @param client [StarkSignClient]: client used in the requests
+     * <p>
+     * Return:
+     * @return list of Batch.Result with the Signature object or the error of each item, in the same order as data
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public static List<Batch.Result<Signature>> signAll(List<HashMap<String, Object>> data, Executor executor,
+                                                         int concurrency, StarkSignClient client)
+            throws InterruptedException {
+        return Batch.run(data, concurrency, item -> CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return signData(item, client);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor)
+            .thenCompose(signData -> Rest.<Signature>postSubResourceAsync(
+                Document.data, (String) item.get("id"), Signature.data, signData, client
+            ))
+            .whenComplete((signature, error) -> invalidate((String) item.get("id"), client))
+        );
+    }
+
+    private static void invalidate(String id, StarkSignClient client) {
+        if (client.documentCache != null) {
+            client.documentCache.invalidate(data, id);
+        }
+    }
+
+    private static <T> CompletableFuture<T> failed(Exception e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    private static SignData signData(HashMap<String, Object> data, StarkSignClient client) throws IOException {
+        if (client.instrumentation == Instrumentation.NOOP) {
+            return signData(data, client.contentStore);
+        }
+        long start = System.nanoTime();
+        SignData signData = signData(data, client.contentStore);
+        client.instrumentation.onSign(System.nanoTime() - start);
+        return signData;
+    }
+
+    private static SignData signData(HashMap<String, Object> data, ContentStore store) throws IOException {
+        return new SignData(
+            (String) data.get("id"),
+            data.get("content"),
             (String) data.get("signerId"),
             (String) data.get("privateKey"),
-            (String) data.get("token")
+            (String) data.get("token"),
+            store
         );
-        return Rest.postSubResource(Document.data, documentId, Signature.data, signData);
     }
 
-    private final static class SignData extends SubResource {
+    /**
+     * Copy handed to a caller, so changes made to it are not seen by the DocumentCache or by concurrent callers
+     * of the same request. Signers and Signatures themselves are shared.
+     */
+    private Document copy() {
+        return new Document(
+            content,
+            status,
+            signers == null ? null : new ArrayList<>(signers),
+            signatures == null ? null : new ArrayList<>(signatures),
+            id
+        );
+    }
+
+    /**
+     * Replaces the content of a newly parsed Document by the client's ContentStore copy. Rest applies it before the
+     * Document is cached or shared, so no shared instance is ever changed.
+     */
+    private static UnaryOperator<Document> interner(StarkSignClient client) {
+        ContentStore store = client.contentStore;
+        if (store == null) {
+            return UnaryOperator.identity();
+        }
+        return document -> {
+            document.content = store.intern(document.content);
+            return document;
+        };
+    }
+
+    final static class SignData extends SubResource {
 
         public String signerId;
         public String signature;
 
-        private SignData(String id, String content, String signerId, String privateKey, String token)
-                throws NoSuchAlgorithmException {
+        SignData(String id, Object content, String signerId, String privateKey, String token)
+                throws IOException {
+            this(id, content, signerId, privateKey, token, null);
+        }
+
+        SignData(String id, Object content, String signerId, String privateKey, String token, ContentStore store)
+                throws IOException {
+            if (!(content instanceof String || content instanceof Reader || content instanceof InputStream)) {
+                throw new IllegalArgumentException(
+                    "content must be a String, Reader or InputStream, not "
+                        + (content == null ? "null" : content.getClass().getName())
+                );
+            }
             this.signerId = signerId;
+            EcdsaSigner signer;
             if (privateKey != null) {
-                PrivateKey privateKeyObject = PrivateKey.fromPem(privateKey);
-                this.signature = Ecdsa.sign(content, privateKeyObject).toBase64();
+                signer = EcdsaSigner.fromPem(privateKey);
+            } else {
+                signer = EcdsaSigner.fromToken(id, signerId, token);
+            }
+            this.signature = sign(signer, content, store).toBase64();
+        }
+
+        private static com.starkbank.ellipticcurve.Signature sign(EcdsaSigner signer, Object content, ContentStore store)
+                throws IOException {
+            if (content instanceof Reader) {
+                return signer.sign((Reader) content);
             }
-            if (privateKey == null) {
-                String message = id + ":" + signerId + ":" + token;
-                byte[] hashMessage = MessageDigest.getInstance("SHA-256").digest(message.getBytes());
-                BigInteger numberMessage = BinaryAscii.numberFromString(hashMessage);
-                PrivateKey privateKeyObject = new PrivateKey(Curve.secp256k1, numberMessage);
-                this.signature = Ecdsa.sign(content, privateKeyObject).toBase64();
+            if (content instanceof InputStream) {
+                return signer.sign((InputStream) content);
             }
+            return signer.sign((String) content, store);
         }
     }
 
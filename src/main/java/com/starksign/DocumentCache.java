@@ -0,0 +1,28 @@
+package com.starksign;
+
+import com.starksign.utils.ResourceCache;
+
+
+public final class DocumentCache extends ResourceCache {
+    /**
+     * DocumentCache object
+     * <p>
+     * Opt-in cache for Document.get(). Documents are weighed by the length of their HTML content, so the cache holds
+     * at most maxContentLength characters of content. Entries are revalidated with the API after maxAgeSeconds and
+     * dropped whenever the Document is signed through this SDK.
+     * Assign it to Settings.documentCache while your application is booting.
+     * <p>
+     * Parameters:
+     * maxContentLength [long]: maximum number of content characters held by the cache. ex: 50000000
+     * maxAgeSeconds    [long]: time a Document is served without revalidation. ex: 5
+     */
+    public DocumentCache(long maxContentLength, long maxAgeSeconds) {
+        super(maxContentLength, maxAgeSeconds);
+    }
+
+    @Override
+    protected long weigh(Object resource) {
+        String content = ((Document) resource).content;
+        return content == null ? 1 : Math.max(1, content.length());
+    }
+}
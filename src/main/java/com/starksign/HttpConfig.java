@@ -0,0 +1,175 @@
+package com.starksign;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+
+import java.util.concurrent.TimeUnit;
+
+
+public final class HttpConfig {
+    /**
+     * HttpConfig object
+     * <p>
+     * Tunes the HTTP client shared by all SDK requests. The connection pool and the dispatcher are owned by this object,
+     * so every environment using the same HttpConfig shares the same keep-alive connections.
+     * Assign it to Settings.httpConfig while your application is booting.
+     * <p>
+     * Parameters:
+     * maxIdleConnections    [int, default 5]: maximum number of idle connections kept alive in the pool
+     * keepAliveSeconds      [long, default 300]: time an idle connection is kept in the pool before being evicted
+     * maxRequests           [int, default 64]: maximum number of concurrent requests
+     * maxRequestsPerHost    [int, default 5]: maximum number of concurrent requests against the Stark Sign API host
+     * http2                 [boolean, default true]: if true, HTTP/2 is negotiated when available; if false, only HTTP/1.1 is used
+     * connectTimeoutSeconds [long, default 30]: connection timeout
+     * readTimeoutSeconds    [long, default 30]: socket read timeout
+     * writeTimeoutSeconds   [long, default 30]: socket write timeout
+     * callTimeoutSeconds    [long, default 0]: timeout for the whole call, including retries and redirects. 0 means no timeout
+     */
+    public static final HttpConfig DEFAULT = builder().build();
+
+    public final int maxIdleConnections;
+    public final long keepAliveSeconds;
+    public final int maxRequests;
+    public final int maxRequestsPerHost;
+    public final boolean http2;
+    public final long connectTimeoutSeconds;
+    public final long readTimeoutSeconds;
+    public final long writeTimeoutSeconds;
+    public final long callTimeoutSeconds;
+
+    private final ConnectionPool connectionPool;
+    private final Dispatcher dispatcher;
+
+    private HttpConfig(Builder builder) {
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveSeconds = builder.keepAliveSeconds;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.http2 = builder.http2;
+        this.connectTimeoutSeconds = builder.connectTimeoutSeconds;
+        this.readTimeoutSeconds = builder.readTimeoutSeconds;
+        this.writeTimeoutSeconds = builder.writeTimeoutSeconds;
+        this.callTimeoutSeconds = builder.callTimeoutSeconds;
+
+        this.connectionPool = new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS);
+        this.dispatcher = new Dispatcher();
+        this.dispatcher.setMaxRequests(maxRequests);
+        this.dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public ConnectionPool connectionPool() {
+        return connectionPool;
+    }
+
+    public Dispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Current HTTP client statistics
+     * <p>
+     * Return:
+     * @return Stats object with the pool and dispatcher counters at the moment of the call
+     */
+    public Stats stats() {
+        return new Stats(
+            connectionPool.connectionCount(),
+            connectionPool.idleConnectionCount(),
+            dispatcher.runningCallsCount(),
+            dispatcher.queuedCallsCount()
+        );
+    }
+
+    public static final class Stats {
+        public final int connections;
+        public final int idleConnections;
+        public final int runningCalls;
+        public final int queuedCalls;
+
+        private Stats(int connections, int idleConnections, int runningCalls, int queuedCalls) {
+            this.connections = connections;
+            this.idleConnections = idleConnections;
+            this.runningCalls = runningCalls;
+            this.queuedCalls = queuedCalls;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats(connections=" + connections + ", idleConnections=" + idleConnections
+                + ", runningCalls=" + runningCalls + ", queuedCalls=" + queuedCalls + ")";
+        }
+    }
+
+    public static final class Builder {
+        private int maxIdleConnections = 5;
+        private long keepAliveSeconds = 300;
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private boolean http2 = true;
+        private long connectTimeoutSeconds = 30;
+        private long readTimeoutSeconds = 30;
+        private long writeTimeoutSeconds = 30;
+        private long callTimeoutSeconds = 0;
+
+        private Builder() {}
+
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        public Builder keepAliveSeconds(long keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+            return this;
+        }
+
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public Builder http2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        public Builder connectTimeoutSeconds(long connectTimeoutSeconds) {
+            this.connectTimeoutSeconds = connectTimeoutSeconds;
+            return this;
+        }
+
+        public Builder readTimeoutSeconds(long readTimeoutSeconds) {
+            this.readTimeoutSeconds = readTimeoutSeconds;
+            return this;
+        }
+
+        public Builder writeTimeoutSeconds(long writeTimeoutSeconds) {
+            this.writeTimeoutSeconds = writeTimeoutSeconds;
+            return this;
+        }
+
+        public Builder callTimeoutSeconds(long callTimeoutSeconds) {
+            this.callTimeoutSeconds = callTimeoutSeconds;
+            return this;
+        }
+
+        public HttpConfig build() {
+            if (maxIdleConnections < 0 || keepAliveSeconds <= 0) {
+                throw new IllegalArgumentException("maxIdleConnections must be non-negative and keepAliveSeconds must be positive");
+            }
+            if (maxRequests < 1 || maxRequestsPerHost < 1) {
+                throw new IllegalArgumentException("maxRequests and maxRequestsPerHost must be at least 1");
+            }
+            return new HttpConfig(this);
+        }
+    }
+}
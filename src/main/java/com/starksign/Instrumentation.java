@@ -0,0 +1,67 @@
+package com.starksign;
+
+
+/**
+ * Instrumentation interface
+ * <p>
+ * Receives the timings and outcomes of each phase of the SDK's work, so they can be exported as metrics or traces.
+ * Every method has an empty default, so implementations only override what they need.
+ * Methods are called synchronously on the thread doing the work, often an HTTP dispatcher thread, and must not block.
+ * Assign an implementation, such as MicrometerInstrumentation, to Settings.instrumentation.
+ * With the default Instrumentation.NOOP, no timing is taken at all.
+ */
+public interface Instrumentation {
+
+    Instrumentation NOOP = new Instrumentation() {};
+
+    /**
+     * Host name resolution
+     */
+    default void onDns(String host, long nanos) {}
+
+    /**
+     * TCP connection, including the TLS handshake. error is null on success
+     */
+    default void onConnect(String host, long nanos, Throwable error) {}
+
+    /**
+     * TLS handshake of a new connection
+     */
+    default void onTls(String host, long nanos) {}
+
+    /**
+     * One request attempt, from sending it to receiving the response headers.
+     * status is 0 and error is set if no response was received
+     */
+    default void onRequest(String method, String path, int status, long nanos, Throwable error) {}
+
+    /**
+     * Response body fully read
+     */
+    default void onResponseBody(String path, long bytes) {}
+
+    /**
+     * JSON response bound to a resource object
+     */
+    default void onParse(String resource, long nanos) {}
+
+    /**
+     * Document content hashed and signed by Document.sign() and its variants
+     */
+    default void onSign(long nanos) {}
+
+    /**
+     * Signature checked against the Stark Sign public keys
+     */
+    default void onVerify(long nanos, boolean valid) {}
+
+    /**
+     * Public keys requested for a verification. hit is false when they had to be fetched
+     */
+    default void onPublicKeyCache(boolean hit) {}
+
+    /**
+     * Public keys fetched again after a failed verification
+     */
+    default void onPublicKeyRefresh() {}
+}
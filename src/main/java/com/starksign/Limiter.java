@@ -0,0 +1,70 @@
+package com.starksign;
+
+import java.util.Arrays;
+
+
+/**
+ * Limiter interface
+ * <p>
+ * Client-side limit applied to every attempt of every SDK request before it is sent.
+ * Assign an implementation, such as TokenBucketLimiter or AimdLimiter, to Settings.limiter.
+ */
+public interface Limiter {
+
+    /**
+     * Wait for permission to send a request
+     * <p>
+     * Parameters:
+     * @param timeoutMillis [long]: maximum time to wait. 0 fails fast
+     * <p>
+     * Return:
+     * @return Permit to be released when the request ends, or null if none was available in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    Permit acquire(long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Take a permit only if one is available right now, without waiting or sleeping
+     * <p>
+     * Used by the asynchronous methods, which retry later instead of holding a thread while no permit is free.
+     * The default calls acquire(0), which implementations must answer without waiting.
+     * <p>
+     * Return:
+     * @return Permit to be released when the request ends, or null if none is available
+     */
+    default Permit tryAcquire() {
+        try {
+            return acquire(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    interface Permit {
+
+        /**
+         * Called once when the request ends
+         * <p>
+         * Parameters:
+         * @param latencyNanos [long]: time between sending the request and receiving the response headers
+         * @param overloaded [boolean]: true if the API answered 429 or 503 or the request timed out
+         */
+        void release(long latencyNanos, boolean overloaded);
+
+        /**
+         * Called instead of release() when the request was not sent
+         */
+        default void cancel() {
+            release(0, false);
+        }
+    }
+
+    /**
+     * Limiter that only gives a permit once all of the given limiters do, acquiring them in order.
+     * ex: Limiter.all(new TokenBucketLimiter(50, 10), AimdLimiter.builder().build())
+     */
+    static Limiter all(Limiter... limiters) {
+        return new AllLimiter(Arrays.asList(limiters));
+    }
+}
@@ -0,0 +1,109 @@
+package com.starksign;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+
+public final class MicrometerInstrumentation implements Instrumentation {
+    /**
+     * MicrometerInstrumentation object
+     * <p>
+     * Records the SDK's timings as Micrometer meters. Micrometer is an optional dependency:
+     * add io.micrometer:micrometer-core to your project to use this class.
+     * <p>
+     * Meters:
+     * starksign.http.dns, starksign.http.connect (tag "outcome") and starksign.http.tls [Timer]: connection setup
+     * starksign.http.requests [Timer, tags "method" and "status"]: request attempts. status is "IO_ERROR" when no response arrived
+     * starksign.http.response.size [DistributionSummary]: response body sizes in bytes
+     * starksign.parse [Timer, tag "resource"]: JSON binding, including reading the response body
+     * starksign.sign [Timer]: document hashing and signing
+     * starksign.verify [Timer, tag "valid"]: signature verification
+     * starksign.public.key.cache [Counter, tag "result"]: "hit", "miss" or "refresh"
+     * <p>
+     * Parameters:
+     * registry [MeterRegistry]: registry where the meters are created
+     */
+    private final MeterRegistry registry;
+    private final Timer dns;
+    private final Timer connectSuccess;
+    private final Timer connectFailure;
+    private final Timer tls;
+    private final DistributionSummary responseSize;
+    private final Timer sign;
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Counter publicKeyHit;
+    private final Counter publicKeyMiss;
+    private final Counter publicKeyRefresh;
+
+    public MicrometerInstrumentation(MeterRegistry registry) {
+        this.registry = registry;
+        this.dns = registry.timer("starksign.http.dns");
+        this.connectSuccess = registry.timer("starksign.http.connect", "outcome", "success");
+        this.connectFailure = registry.timer("starksign.http.connect", "outcome", "failure");
+        this.tls = registry.timer("starksign.http.tls");
+        this.responseSize = registry.summary("starksign.http.response.size");
+        this.sign = registry.timer("starksign.sign");
+        this.verifyValid = registry.timer("starksign.verify", "valid", "true");
+        this.verifyInvalid = registry.timer("starksign.verify", "valid", "false");
+        this.publicKeyHit = registry.counter("starksign.public.key.cache", "result", "hit");
+        this.publicKeyMiss = registry.counter("starksign.public.key.cache", "result", "miss");
+        this.publicKeyRefresh = registry.counter("starksign.public.key.cache", "result", "refresh");
+    }
+
+    @Override
+    public void onDns(String host, long nanos) {
+        dns.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onConnect(String host, long nanos, Throwable error) {
+        (error == null ? connectSuccess : connectFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onTls(String host, long nanos) {
+        tls.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRequest(String method, String path, int status, long nanos, Throwable error) {
+        String statusTag = error == null ? Integer.toString(status) : "IO_ERROR";
+        registry.timer("starksign.http.requests", "method", method, "status", statusTag)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onResponseBody(String path, long bytes) {
+        responseSize.record(bytes);
+    }
+
+    @Override
+    public void onParse(String resource, long nanos) {
+        registry.timer("starksign.parse", "resource", resource).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onSign(long nanos) {
+        sign.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onVerify(long nanos, boolean valid) {
+        (valid ? verifyValid : verifyInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onPublicKeyCache(boolean hit) {
+        (hit ? publicKeyHit : publicKeyMiss).increment();
+    }
+
+    @Override
+    public void onPublicKeyRefresh() {
+        publicKeyRefresh.increment();
+    }
+}
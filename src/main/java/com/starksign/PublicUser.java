@@ -3,6 +3,11 @@ package com.starksign;
 import com.starksign.utils.Check;
 
 
+/**
+ * @deprecated superseded by StarkSignClient, which holds the environment along with the rest of the configuration,
+ * and to be removed in the next release. ex: StarkSignClient.builder().environment("sandbox").build()
+ */
+@Deprecated
 public class PublicUser{
     public final String environment;
 
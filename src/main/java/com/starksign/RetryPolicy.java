@@ -0,0 +1,156 @@
+package com.starksign;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public final class RetryPolicy {
+    /**
+     * RetryPolicy object
+     * <p>
+     * Controls how SDK requests are retried after connection failures and transient API errors
+     * (429, 500, 502, 503 and 504). Only GET requests and POSTs carrying an Idempotency-Key, such as Document.sign(),
+     * are retried, so a retried signature is never submitted twice.
+     * Each retry waits a random time between zero and an exponentially growing delay ("full jitter"),
+     * so clients that failed together do not retry together.
+     * Retries are also limited by a budget shared by every request using this policy: each request adds
+     * retryBudgetRatio to it and each retry takes 1 from it, so a failing API gets at most that extra share of
+     * traffic instead of a retry storm.
+     * Assign it to Settings.retryPolicy while your application is booting.
+     * <p>
+     * Parameters:
+     * maxAttempts      [int, default 3]: maximum number of attempts per request, including the first one. 1 disables retries
+     * baseDelayMillis  [long, default 100]: upper bound of the wait before the first retry, doubled on every retry
+     * maxDelayMillis   [long, default 2000]: maximum wait before a retry, also applied to the Retry-After header
+     * retryBudgetRatio [double, default 0.1]: retries earned by each request. ex: 0.1 allows 1 retry every 10 requests
+     * maxRetryBudget   [int, default 10]: maximum number of retries that can be saved up, available from the start
+     */
+    public static final RetryPolicy DEFAULT = builder().build();
+    public static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private static final long tokenScale = 1000;
+
+    public final int maxAttempts;
+    public final long baseDelayMillis;
+    public final long maxDelayMillis;
+    public final double retryBudgetRatio;
+    public final int maxRetryBudget;
+
+    private final AtomicLong budget;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.retryBudgetRatio = builder.retryBudgetRatio;
+        this.maxRetryBudget = builder.maxRetryBudget;
+        this.budget = new AtomicLong(maxRetryBudget * tokenScale);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether an API answer with this status code is worth retrying
+     */
+    public boolean isRetryable(int status) {
+        return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Adds this request's share to the retry budget. Called once per request, not per attempt.
+     */
+    public void recordRequest() {
+        long deposit = (long) (retryBudgetRatio * tokenScale);
+        long max = maxRetryBudget * tokenScale;
+        budget.accumulateAndGet(deposit, (current, amount) -> Math.min(current + amount, max));
+    }
+
+    /**
+     * Takes one retry from the budget
+     * <p>
+     * Return:
+     * @return true if the retry may be sent, false if the budget is exhausted
+     */
+    public boolean acquireRetry() {
+        while (true) {
+            long current = budget.get();
+            if (current < tokenScale) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - tokenScale)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Time to wait before the given retry
+     * <p>
+     * Parameters:
+     * @param retry [int]: 1 for the first retry, 2 for the second and so on
+     * @param retryAfterSeconds [long]: value of the Retry-After header, or a negative number if there was none
+     * <p>
+     * Return:
+     * @return wait in milliseconds
+     */
+    public long delayMillis(int retry, long retryAfterSeconds) {
+        if (retryAfterSeconds >= 0) {
+            return Math.min(retryAfterSeconds * 1000, maxDelayMillis);
+        }
+        long ceiling = baseDelayMillis << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private long baseDelayMillis = 100;
+        private long maxDelayMillis = 2000;
+        private double retryBudgetRatio = 0.1;
+        private int maxRetryBudget = 10;
+
+        private Builder() {}
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder baseDelayMillis(long baseDelayMillis) {
+            this.baseDelayMillis = baseDelayMillis;
+            return this;
+        }
+
+        public Builder maxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        public Builder retryBudgetRatio(double retryBudgetRatio) {
+            this.retryBudgetRatio = retryBudgetRatio;
+            return this;
+        }
+
+        public Builder maxRetryBudget(int maxRetryBudget) {
+            this.maxRetryBudget = maxRetryBudget;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            if (baseDelayMillis < 0 || maxDelayMillis < 0) {
+                throw new IllegalArgumentException("baseDelayMillis and maxDelayMillis must be non-negative");
+            }
+            if (retryBudgetRatio < 0 || maxRetryBudget < 0) {
+                throw new IllegalArgumentException("retryBudgetRatio and maxRetryBudget must be non-negative");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -4,4 +4,14 @@ package com.starksign;
 public abstract class Settings{
     public static String environment = null;
     public static String language = "en-US";
+    public static HttpConfig httpConfig = HttpConfig.DEFAULT;
+    public static long publicKeyTtlSeconds = 3600;
+    public static long publicKeyRefreshIntervalSeconds = 10;
+    public static DocumentCache documentCache = null;
+    public static RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    public static Limiter limiter = null;
+    public static long limiterTimeoutMillis = 1000;
+    public static Instrumentation instrumentation = Instrumentation.NOOP;
+    public static VerificationCache verificationCache = null;
+    public static ContentStore contentStore = null;
 }
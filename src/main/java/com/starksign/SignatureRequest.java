@@ -3,6 +3,7 @@ package com.starksign;
 import com.starksign.utils.Parse;
 import com.starksign.utils.SubResource;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -93,4 +94,94 @@ public final class SignatureRequest extends SubResource {
     public static<T extends SubResource> T parse(String content, String signature) throws Exception {
         return Parse.parseAndVerify(data, content, signature);
     }
+
+    /**
+     * Create a single verified SignatureRequest object from a content string
+     * <p>
+     * Same as SignatureRequest.parse(), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param content [string]: response content from request received at user endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at response header "Digital-Signature"
+     * @param client [StarkSignClient]: client used to fetch the Stark Sign public keys
+     * <p>
+     * Return:
+     * @return Parsed SignatureRequest object
+     * @throws Exception error in the request
+     */
+    public static<T extends SubResource> T parse(String content, String signature, StarkSignClient client) throws Exception {
+        return Parse.parseAndVerify(data, content, signature, client);
+    }
+
+    /**
+     * Create a single verified SignatureRequest object from the raw request body
+     * <p>
+     * Same as SignatureRequest.parse(), reading the body bytes exactly as received. The bytes are verified and
+     * then bound straight into the SignatureRequest, without building a String from them.
+     * <p>
+     * Parameters:
+     * @param content [byte array]: UTF-8 request body received at user endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at response header "Digital-Signature"
+     * <p>
+     * Return:
+     * @return Parsed SignatureRequest object
+     * @throws Exception error in the request
+     */
+    public static<T extends SubResource> T parse(byte[] content, String signature) throws Exception {
+        return Parse.parseAndVerify(data, content, signature);
+    }
+
+    /**
+     * Create a single verified SignatureRequest object from the raw request body
+     * <p>
+     * Same as SignatureRequest.parse(byte[], String), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param content [byte array]: UTF-8 request body received at user endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at response header "Digital-Signature"
+     * @param client [StarkSignClient]: client used to fetch the Stark Sign public keys
+     * <p>
+     * Return:
+     * @return Parsed SignatureRequest object
+     * @throws Exception error in the request
+     */
+    public static<T extends SubResource> T parse(byte[] content, String signature, StarkSignClient client) throws Exception {
+        return Parse.parseAndVerify(data, content, signature, client);
+    }
+
+    /**
+     * Create a single verified SignatureRequest object from the raw request body
+     * <p>
+     * Same as SignatureRequest.parse(byte[], String), reading the remaining bytes of the buffer.
+     * The buffer's position is not changed.
+     * <p>
+     * Parameters:
+     * @param content [ByteBuffer]: UTF-8 request body received at user endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at response header "Digital-Signature"
+     * <p>
+     * Return:
+     * @return Parsed SignatureRequest object
+     * @throws Exception error in the request
+     */
+    public static<T extends SubResource> T parse(ByteBuffer content, String signature) throws Exception {
+        return Parse.parseAndVerify(data, content, signature);
+    }
+
+    /**
+     * Create a single verified SignatureRequest object from the raw request body
+     * <p>
+     * Same as SignatureRequest.parse(ByteBuffer, String), using the given client instead of Settings.
+     * <p>
+     * Parameters:
+     * @param content [ByteBuffer]: UTF-8 request body received at user endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at response header "Digital-Signature"
+     * @param client [StarkSignClient]: client used to fetch the Stark Sign public keys
+     * <p>
+     * Return:
+     * @return Parsed SignatureRequest object
+     * @throws Exception error in the request
+     */
+    public static<T extends SubResource> T parse(ByteBuffer content, String signature, StarkSignClient client) throws Exception {
+        return Parse.parseAndVerify(data, content, signature, client);
+    }
 }
@@ -0,0 +1,353 @@
+package com.starksign;
+
+import com.starksign.utils.Hash;
+import com.starksign.utils.LruCache;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+
+public final class SignatureRequestProcessor implements AutoCloseable {
+    /**
+     * SignatureRequestProcessor object
+     * <p>
+     * Verifies and parses SignatureRequests off the thread that received them, so your endpoint can answer as soon
+     * as the request is queued. submit() never verifies anything: it drops replays of a content and signature pair
+     * that is already queued or was already verified and, if the queue is full, returns false so the endpoint can
+     * answer with an error and let Stark Sign deliver the request again later. Worker threads take the queued requests
+     * in batches, verify them against the Stark Sign public keys and hand the valid ones to onRequest.
+     * A pair that fails verification is forgotten, so it is verified again if it is delivered again.
+     * Exceptions thrown by onRequest are given to onError, and exceptions thrown by onError are ignored.
+     * <p>
+     * Parameters:
+     * onRequest     [Consumer of SignatureRequest]: called on a worker thread for every verified SignatureRequest
+     * onError       [BiConsumer of String and Exception, default ignores errors]: called on a worker thread with the content and error of every request that failed verification or whose onRequest threw
+     * client        [StarkSignClient, default StarkSignClient.fromSettings()]: client used to fetch the public keys
+     * queueCapacity [int, default 1000]: maximum number of requests waiting for verification
+     * workers       [int, default number of processors]: number of worker threads
+     * batchSize     [int, default 32]: maximum number of requests a worker takes from the queue at once
+     * dedupeSize    [int, default 10000]: number of recently verified requests remembered to drop replays
+     */
+    public final int queueCapacity;
+    public final int workers;
+    public final int batchSize;
+    public final int dedupeSize;
+
+    private static final AtomicInteger processorCount = new AtomicInteger();
+    private static final Task poison = new Task(null, null, null);
+
+    private final Consumer<SignatureRequest> onRequest;
+    private final BiConsumer<String, Exception> onError;
+    private final StarkSignClient client;
+    private final BlockingQueue<Task> queue;
+    private final LruCache<String, Boolean> seen;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final CountDownLatch stopped;
+    private boolean closed;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private SignatureRequestProcessor(Builder builder) throws Exception {
+        if (builder.onRequest == null) {
+            throw new IllegalArgumentException("onRequest must be informed");
+        }
+        if (builder.queueCapacity < 1 || builder.workers < 1 || builder.batchSize < 1 || builder.dedupeSize < 1) {
+            throw new IllegalArgumentException("queueCapacity, workers, batchSize and dedupeSize must be at least 1");
+        }
+        this.queueCapacity = builder.queueCapacity;
+        this.workers = builder.workers;
+        this.batchSize = builder.batchSize;
+        this.dedupeSize = builder.dedupeSize;
+        this.onRequest = builder.onRequest;
+        this.onError = builder.onError == null ? (content, error) -> {} : builder.onError;
+        this.client = builder.client == null ? StarkSignClient.fromSettings() : builder.client;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.seen = new LruCache<>(dedupeSize);
+        this.stopped = new CountDownLatch(workers);
+
+        int processor = processorCount.incrementAndGet();
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::work, "starksign-signature-request-" + processor + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Queue a SignatureRequest for verification without waiting
+     * <p>
+     * Parameters:
+     * @param content [string]: request content received at your endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at request header "Digital-Signature"
+     * <p>
+     * Return:
+     * @return true if the request was queued or is a replay of one already queued or verified, false if the queue is full or the processor is closed
+     */
+    public boolean submit(String content, String signature) {
+        try {
+            return submit(content, signature, 0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Queue a SignatureRequest for verification, waiting up to timeout for room in the queue
+     * <p>
+     * A call to close() made meanwhile waits for this one to return.
+     * <p>
+     * Parameters:
+     * @param content [string]: request content received at your endpoint (not parsed)
+     * @param signature [string]: base-64 digital signature received at request header "Digital-Signature"
+     * @param timeout [long]: maximum time to wait for room in the queue
+     * @param unit [TimeUnit]: unit of timeout
+     * <p>
+     * Return:
+     * @return true if the request was queued or is a replay of one already queued or verified, false if the queue stayed full or the processor is closed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean submit(String content, String signature, long timeout, TimeUnit unit) throws InterruptedException {
+        String key = key(content, signature);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            // added before checking seen: a worker marks a request seen before removing it from inFlight
+            if (!inFlight.add(key)) {
+                duplicates.incrementAndGet();
+                return true;
+            }
+            if (seen.get(key) != null) {
+                inFlight.remove(key);
+                duplicates.incrementAndGet();
+                return true;
+            }
+            boolean queued = false;
+            try {
+                queued = queue.offer(new Task(content, signature, key), timeout, unit);
+            } finally {
+                if (!queued) {
+                    inFlight.remove(key);
+                }
+            }
+            if (!queued) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            accepted.incrementAndGet();
+            return true;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Current processor statistics
+     * <p>
+     * Return:
+     * @return Stats object with the counters at the moment of the call
+     */
+    public Stats stats() {
+        return new Stats(queue.size(), accepted.get(), duplicates.get(), rejected.get(), verified.get(), failed.get());
+    }
+
+    /**
+     * Stop accepting requests, process the ones already queued and stop the workers
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers
+     */
+    @Override
+    public void close() throws InterruptedException {
+        boolean first;
+        closeLock.writeLock().lock();
+        try {
+            first = !closed;
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        if (first) {
+            for (int i = 0; i < workers; i++) {
+                queue.put(poison);
+            }
+        }
+        stopped.await();
+    }
+
+    private void work() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                int poisons = 0;
+                for (Task task : batch) {
+                    if (task == poison) {
+                        poisons++;
+                        continue;
+                    }
+                    process(task);
+                }
+                batch.clear();
+                if (poisons > 0) {
+                    for (int i = 1; i < poisons; i++) {
+                        queue.put(poison);
+                    }
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    private void process(Task task) {
+        SignatureRequest request;
+        try {
+            request = SignatureRequest.parse(task.content, task.signature, client);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            inFlight.remove(task.key);
+            reportError(task.content, e);
+            return;
+        }
+        seen.put(task.key, Boolean.TRUE);
+        inFlight.remove(task.key);
+        verified.incrementAndGet();
+        try {
+            onRequest.accept(request);
+        } catch (Exception e) {
+            reportError(task.content, e);
+        }
+    }
+
+    /**
+     * Calls onError, ignoring any Exception it throws so the worker keeps running. Errors are not caught
+     */
+    private void reportError(String content, Exception error) {
+        try {
+            onError.accept(content, error);
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Base-64 SHA-256 of the signature and content, identifying a delivery of a request
+     */
+    private static String key(String content, String signature) {
+        return Base64.getEncoder().encodeToString(Hash.sha256(signature + "\n", String.valueOf(content)));
+    }
+
+    private static final class Task {
+        private final String content;
+        private final String signature;
+        private final String key;
+
+        private Task(String content, String signature, String key) {
+            this.content = content;
+            this.signature = signature;
+            this.key = key;
+        }
+    }
+
+    public static final class Stats {
+        public final int queued;
+        public final long accepted;
+        public final long duplicates;
+        public final long rejected;
+        public final long verified;
+        public final long failed;
+
+        private Stats(int queued, long accepted, long duplicates, long rejected, long verified, long failed) {
+            this.queued = queued;
+            this.accepted = accepted;
+            this.duplicates = duplicates;
+            this.rejected = rejected;
+            this.verified = verified;
+            this.failed = failed;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats(queued=" + queued + ", accepted=" + accepted + ", duplicates=" + duplicates
+                + ", rejected=" + rejected + ", verified=" + verified + ", failed=" + failed + ")";
+        }
+    }
+
+    public static final class Builder {
+        private Consumer<SignatureRequest> onRequest;
+        private BiConsumer<String, Exception> onError;
+        private StarkSignClient client;
+        private int queueCapacity = 1000;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int batchSize = 32;
+        private int dedupeSize = 10000;
+
+        private Builder() {}
+
+        public Builder onRequest(Consumer<SignatureRequest> onRequest) {
+            this.onRequest = onRequest;
+            return this;
+        }
+
+        public Builder onError(BiConsumer<String, Exception> onError) {
+            this.onError = onError;
+            return this;
+        }
+
+        public Builder client(StarkSignClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder dedupeSize(int dedupeSize) {
+            this.dedupeSize = dedupeSize;
+            return this;
+        }
+
+        public SignatureRequestProcessor build() throws Exception {
+            return new SignatureRequestProcessor(this);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.starksign;
+
+import com.starksign.utils.Check;
+
+
+public final class StarkSignClient {
+    /**
+     * StarkSignClient object
+     * <p>
+     * Immutable configuration for SDK calls, validated once when it is built. Pass it to the methods that accept
+     * a client to run, for example, sandbox and production traffic side by side in the same application.
+     * Methods called without a client use one built from Settings.
+     * <p>
+     * Parameters:
+     * environment                     [string]: environment where requests are sent. ex: "sandbox" or "production"
+     * baseUrl                         [string, default null]: API address ending in "/", to use a local or proxied server instead of the environment's. ex: "http://localhost:8080/"
+     * language                        [string, default "en-US"]: language of API error messages. ex: "en-US" or "pt-BR"
+     * httpConfig                      [HttpConfig, default HttpConfig.DEFAULT]: HTTP client settings
+     * documentCache                   [DocumentCache, default null]: cache for Document.get(). null disables caching
+     * retryPolicy                     [RetryPolicy, default RetryPolicy.DEFAULT]: retries of failed requests. null means RetryPolicy.DEFAULT; RetryPolicy.NONE disables them
+     * limiter                         [Limiter, default null]: client-side rate or concurrency limit for requests. null disables limiting
+     * limiterTimeoutMillis            [long, default 1000]: time a request waits for a limiter permit before failing with RateLimitError. 0 fails fast
+     * instrumentation                 [Instrumentation, default Instrumentation.NOOP]: listener for timings of requests, parsing, signing and verification
+     * publicKeyTtlSeconds             [long, default 3600]: time the Stark Sign public keys are cached
+     * publicKeyRefreshIntervalSeconds [long, default 10]: minimum interval between public key refreshes caused by invalid signatures
+     * verificationCache               [VerificationCache, default null]: cache of accepted webhook signatures. null disables caching
+     * contentStore                    [ContentStore, default null]: store that deduplicates Document contents and their digests. null disables it
+     */
+    private static volatile StarkSignClient settingsClient;
+
+    public final String environment;
+    public final String baseUrl;
+    public final String language;
+    public final HttpConfig httpConfig;
+    public final DocumentCache documentCache;
+    public final RetryPolicy retryPolicy;
+    public final Limiter limiter;
+    public final long limiterTimeoutMillis;
+    public final Instrumentation instrumentation;
+    public final long publicKeyTtlSeconds;
+    public final long publicKeyRefreshIntervalSeconds;
+    public final VerificationCache verificationCache;
+    public final ContentStore contentStore;
+
+    private StarkSignClient(Builder builder) throws Exception {
+        this.environment = Check.environment(builder.environment);
+        this.baseUrl = builder.baseUrl == null ? defaultBaseUrl(environment) : Check.baseUrl(builder.baseUrl);
+        this.language = Check.language(builder.language);
+        this.httpConfig = builder.httpConfig == null ? HttpConfig.DEFAULT : builder.httpConfig;
+        this.documentCache = builder.documentCache;
+        this.retryPolicy = builder.retryPolicy == null ? RetryPolicy.DEFAULT : builder.retryPolicy;
+        this.limiter = builder.limiter;
+        this.limiterTimeoutMillis = builder.limiterTimeoutMillis;
+        this.instrumentation = builder.instrumentation == null ? Instrumentation.NOOP : builder.instrumentation;
+        this.publicKeyTtlSeconds = builder.publicKeyTtlSeconds;
+        this.publicKeyRefreshIntervalSeconds = builder.publicKeyRefreshIntervalSeconds;
+        this.verificationCache = builder.verificationCache;
+        this.contentStore = builder.contentStore;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Client matching the current Settings
+     * <p>
+     * The client is built and validated once and reused for as long as Settings stays the same.
+     * <p>
+     * Return:
+     * @return StarkSignClient object
+     * @throws Exception if Settings.environment or Settings.language is invalid
+     */
+    public static StarkSignClient fromSettings() throws Exception {
+        StarkSignClient client = settingsClient;
+        if (client != null && client.matchesSettings()) {
+            return client;
+        }
+        client = builder()
+            .environment(Settings.environment)
+            .language(Settings.language)
+            .httpConfig(Settings.httpConfig)
+            .documentCache(Settings.documentCache)
+            .retryPolicy(Settings.retryPolicy)
+            .limiter(Settings.limiter)
+            .limiterTimeoutMillis(Settings.limiterTimeoutMillis)
+            .instrumentation(Settings.instrumentation)
+            .publicKeyTtlSeconds(Settings.publicKeyTtlSeconds)
+            .publicKeyRefreshIntervalSeconds(Settings.publicKeyRefreshIntervalSeconds)
+            .verificationCache(Settings.verificationCache)
+            .contentStore(Settings.contentStore)
+            .build();
+        settingsClient = client;
+        return client;
+    }
+
+    private static String defaultBaseUrl(String environment) {
+        switch (environment) {
+            case "production":
+                return "https://api.starksign.com/";
+            default:
+                return "https://sandbox.api.starksign.com/";
+        }
+    }
+
+    private boolean matchesSettings() {
+        return environment.equals(Settings.environment)
+            && language.equals(Settings.language)
+            && httpConfig == (Settings.httpConfig == null ? HttpConfig.DEFAULT : Settings.httpConfig)
+            && documentCache == Settings.documentCache
+            && retryPolicy == (Settings.retryPolicy == null ? RetryPolicy.DEFAULT : Settings.retryPolicy)
+            && limiter == Settings.limiter
+            && limiterTimeoutMillis == Settings.limiterTimeoutMillis
+            && instrumentation == (Settings.instrumentation == null ? Instrumentation.NOOP : Settings.instrumentation)
+            && publicKeyTtlSeconds == Settings.publicKeyTtlSeconds
+            && publicKeyRefreshIntervalSeconds == Settings.publicKeyRefreshIntervalSeconds
+            && verificationCache == Settings.verificationCache
+            && contentStore == Settings.contentStore;
+    }
+
+    public static final class Builder {
+        private String environment;
+        private String baseUrl;
+        private String language = "en-US";
+        private HttpConfig httpConfig = HttpConfig.DEFAULT;
+        private DocumentCache documentCache;
+        private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+        private Limiter limiter;
+        private long limiterTimeoutMillis = 1000;
+        private Instrumentation instrumentation = Instrumentation.NOOP;
+        private long publicKeyTtlSeconds = 3600;
+        private long publicKeyRefreshIntervalSeconds = 10;
+        private VerificationCache verificationCache;
+        private ContentStore contentStore;
+
+        private Builder() {}
+
+        public Builder environment(String environment) {
+            this.environment = environment;
+            return this;
+        }
+
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public Builder language(String language) {
+            this.language = language;
+            return this;
+        }
+
+        public Builder httpConfig(HttpConfig httpConfig) {
+            this.httpConfig = httpConfig;
+            return this;
+        }
+
+        public Builder documentCache(DocumentCache documentCache) {
+            this.documentCache = documentCache;
+            return this;
+        }
+
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public Builder limiter(Limiter limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+
+        public Builder limiterTimeoutMillis(long limiterTimeoutMillis) {
+            this.limiterTimeoutMillis = limiterTimeoutMillis;
+            return this;
+        }
+
+        public Builder instrumentation(Instrumentation instrumentation) {
+            this.instrumentation = instrumentation;
+            return this;
+        }
+
+        public Builder publicKeyTtlSeconds(long publicKeyTtlSeconds) {
+            this.publicKeyTtlSeconds = publicKeyTtlSeconds;
+            return this;
+        }
+
+        public Builder publicKeyRefreshIntervalSeconds(long publicKeyRefreshIntervalSeconds) {
+            this.publicKeyRefreshIntervalSeconds = publicKeyRefreshIntervalSeconds;
+            return this;
+        }
+
+        public Builder verificationCache(VerificationCache verificationCache) {
+            this.verificationCache = verificationCache;
+            return this;
+        }
+
+        public Builder contentStore(ContentStore contentStore) {
+            this.contentStore = contentStore;
+            return this;
+        }
+
+        public StarkSignClient build() throws Exception {
+            return new StarkSignClient(this);
+        }
+    }
+}
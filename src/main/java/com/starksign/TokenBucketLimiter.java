@@ -0,0 +1,66 @@
+package com.starksign;
+
+import java.util.concurrent.TimeUnit;
+
+
+public final class TokenBucketLimiter implements Limiter {
+    /**
+     * TokenBucketLimiter object
+     * <p>
+     * Limits the request rate. The bucket holds up to "burst" permits and is refilled at permitsPerSecond.
+     * When it is empty, callers reserve the next permits in arrival order and sleep until they are due,
+     * or fail right away if that would take longer than their timeout. tryAcquire() only takes a permit that is
+     * already due, never reserving one.
+     * <p>
+     * Parameters:
+     * permitsPerSecond [double]: sustained request rate. ex: 50
+     * burst            [int]: maximum number of requests sent at once after an idle period. ex: 10
+     */
+    private static final Permit permit = (latencyNanos, overloaded) -> {};
+
+    public final double permitsPerSecond;
+    public final int burst;
+
+    private final long nanosPerPermit;
+    private long nextFreeNanos;
+
+    public TokenBucketLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst must be at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.nanosPerPermit = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextFreeNanos = System.nanoTime() - burst * nanosPerPermit;
+    }
+
+    @Override
+    public Permit acquire(long timeoutMillis) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeNanos, now - burst * nanosPerPermit);
+            long due = start + nanosPerPermit;
+            waitNanos = due - now;
+            if (waitNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+                return null;
+            }
+            nextFreeNanos = due;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return permit;
+    }
+
+    @Override
+    public synchronized Permit tryAcquire() {
+        long now = System.nanoTime();
+        long due = Math.max(nextFreeNanos, now - burst * nanosPerPermit) + nanosPerPermit;
+        if (due > now) {
+            return null;
+        }
+        nextFreeNanos = due;
+        return permit;
+    }
+}
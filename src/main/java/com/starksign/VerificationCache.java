@@ -0,0 +1,26 @@
+package com.starksign;
+
+import com.starksign.utils.SignatureCache;
+
+
+public final class VerificationCache extends SignatureCache {
+    /**
+     * VerificationCache object
+     * <p>
+     * Opt-in cache of accepted webhook signatures, so retried or duplicated deliveries of the same request skip
+     * ECDSA verification. Entries are keyed by the full SHA-256 digest of the content, the exact signature
+     * received and the set of Stark Sign public keys it was verified against, so a hit needs all three to match a
+     * pair that already verified. Only valid signatures are cached.
+     * Entries expire after ttlSeconds and the least recently used ones are evicted beyond maxEntries. Entries of a
+     * previous set of public keys are never hit once the keys are refreshed, so one cache can be shared by clients
+     * of different environments.
+     * Assign it to Settings.verificationCache while your application is booting.
+     * <p>
+     * Parameters:
+     * maxEntries [int]: maximum number of accepted signatures remembered. ex: 10000
+     * ttlSeconds [long]: time an accepted signature is remembered. ex: 300
+     */
+    public VerificationCache(int maxEntries, long ttlSeconds) {
+        super(maxEntries, ttlSeconds);
+    }
+}
@@ -0,0 +1,8 @@
+package com.starksign.error;
+
+public final class RateLimitError extends StarkError {
+
+    public RateLimitError(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,315 @@
+package com.starksign.utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.starksign.Document;
+import com.starksign.SignatureRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+final class Adapters {
+
+    private Adapters() {}
+
+    static final class DocumentAdapter extends TypeAdapter<Document> {
+        private final SignerAdapter signerAdapter = new SignerAdapter();
+        private final SignatureAdapter signatureAdapter = new SignatureAdapter();
+
+        @Override
+        public void write(JsonWriter out, Document document) throws IOException {
+            out.beginObject();
+            out.name("content").value(document.content);
+            out.name("status").value(document.status);
+            writeList(out, "signers", document.signers, signerAdapter);
+            writeList(out, "signatures", document.signatures, signatureAdapter);
+            out.name("id").value(document.id);
+            out.endObject();
+        }
+
+        @Override
+        public Document read(JsonReader in) throws IOException {
+            String content = null;
+            String status = null;
+            List<Document.Signer> signers = null;
+            List<Document.Signature> signatures = null;
+            String id = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "content":
+                        content = readString(in);
+                        break;
+                    case "status":
+                        status = readString(in);
+                        break;
+                    case "signers":
+                        signers = readList(in, signerAdapter);
+                        break;
+                    case "signatures":
+                        signatures = readList(in, signatureAdapter);
+                        break;
+                    case "id":
+                        id = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Document(content, status, signers, signatures, id);
+        }
+    }
+
+    static final class SignerAdapter extends TypeAdapter<Document.Signer> {
+
+        @Override
+        public void write(JsonWriter out, Document.Signer signer) throws IOException {
+            out.beginObject();
+            out.name("name").value(signer.name);
+            out.name("contact").value(signer.contact);
+            out.name("method").value(signer.method);
+            out.name("isSent").value(signer.isSent);
+            out.name("status").value(signer.status);
+            out.name("documentId").value(signer.documentId);
+            writeStrings(out, "tags", signer.tags);
+            out.name("created").value(signer.created);
+            out.name("updated").value(signer.updated);
+            out.name("id").value(signer.id);
+            out.endObject();
+        }
+
+        @Override
+        public Document.Signer read(JsonReader in) throws IOException {
+            String name = null;
+            String contact = null;
+            String method = null;
+            String isSent = null;
+            String status = null;
+            String documentId = null;
+            List<String> tags = null;
+            String created = null;
+            String updated = null;
+            String id = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = readString(in);
+                        break;
+                    case "contact":
+                        contact = readString(in);
+                        break;
+                    case "method":
+                        method = readString(in);
+                        break;
+                    case "isSent":
+                        isSent = readString(in);
+                        break;
+                    case "status":
+                        status = readString(in);
+                        break;
+                    case "documentId":
+                        documentId = readString(in);
+                        break;
+                    case "tags":
+                        tags = readStrings(in);
+                        break;
+                    case "created":
+                        created = readString(in);
+                        break;
+                    case "updated":
+                        updated = readString(in);
+                        break;
+                    case "id":
+                        id = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Document.Signer(name, contact, method, isSent, status, documentId, tags, created, updated, id);
+        }
+    }
+
+    static final class SignatureAdapter extends TypeAdapter<Document.Signature> {
+
+        @Override
+        public void write(JsonWriter out, Document.Signature signature) throws IOException {
+            out.beginObject();
+            out.name("signerId").value(signature.signerId);
+            out.name("name").value(signature.name);
+            out.name("contact").value(signature.contact);
+            out.name("signature").value(signature.signature);
+            out.name("publicKey").value(signature.publicKey);
+            out.name("ip").value(signature.ip);
+            out.name("created").value(signature.created);
+            out.endObject();
+        }
+
+        @Override
+        public Document.Signature read(JsonReader in) throws IOException {
+            String signerId = null;
+            String name = null;
+            String contact = null;
+            String signature = null;
+            String publicKey = null;
+            String ip = null;
+            String created = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "signerId":
+                        signerId = readString(in);
+                        break;
+                    case "name":
+                        name = readString(in);
+                        break;
+                    case "contact":
+                        contact = readString(in);
+                        break;
+                    case "signature":
+                        signature = readString(in);
+                        break;
+                    case "publicKey":
+                        publicKey = readString(in);
+                        break;
+                    case "ip":
+                        ip = readString(in);
+                        break;
+                    case "created":
+                        created = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Document.Signature(signerId, name, contact, signature, publicKey, ip, created);
+        }
+    }
+
+    static final class SignatureRequestAdapter extends TypeAdapter<SignatureRequest> {
+
+        @Override
+        public void write(JsonWriter out, SignatureRequest request) throws IOException {
+            out.beginObject();
+            out.name("signerId").value(request.signerId);
+            out.name("documentId").value(request.documentId);
+            out.name("privateKey").value(request.privateKey);
+            out.endObject();
+        }
+
+        @Override
+        public SignatureRequest read(JsonReader in) throws IOException {
+            String signerId = null;
+            String documentId = null;
+            String privateKey = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "signerId":
+                        signerId = readString(in);
+                        break;
+                    case "documentId":
+                        documentId = readString(in);
+                        break;
+                    case "privateKey":
+                        privateKey = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SignatureRequest(signerId, documentId, privateKey);
+        }
+    }
+
+    /**
+     * Read a string field the same way Gson's reflective binding does: booleans and numbers are kept as their text.
+     */
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(readString(in));
+        }
+        in.endArray();
+        return values;
+    }
+
+    private static <T> List<T> readList(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<T> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                values.add(null);
+                continue;
+            }
+            values.add(adapter.read(in));
+        }
+        in.endArray();
+        return values;
+    }
+
+    private static void writeStrings(JsonWriter out, String name, List<String> values) throws IOException {
+        out.name(name);
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    private static <T> void writeList(JsonWriter out, String name, List<T> values, TypeAdapter<T> adapter) throws IOException {
+        out.name(name);
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T value : values) {
+            if (value == null) {
+                out.nullValue();
+                continue;
+            }
+            adapter.write(out, value);
+        }
+        out.endArray();
+    }
+}
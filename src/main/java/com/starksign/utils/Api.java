@@ -3,17 +3,29 @@ package com.starksign.utils;
 
 final class Api {
     static String endpoint(Resource.ClassData resource){
-        return "/" + Case.camelToKebab(resource.name)
-                         .replace("-log", "/log")
-                         .replace("-attempt", "/attempt");
+        return resource.endpoint;
     }
 
     static String endpoint(Resource.ClassData resource, String id){
-        return endpoint(resource) + "/" + id;
+        return resource.endpoint + "/" + id;
     }
 
     static String getLastNamePlural(Resource.ClassData resource){
-        String lastName = getLastName(resource);
+        return resource.lastNamePlural;
+    }
+
+    static String getLastName(Resource.ClassData resource){
+        return resource.lastName;
+    }
+
+    static String endpoint(String name){
+        return "/" + Case.camelToKebab(name)
+                         .replace("-log", "/log")
+                         .replace("-attempt", "/attempt");
+    }
+
+    static String getLastNamePlural(String name){
+        String lastName = getLastName(name);
         if (lastName.endsWith("s"))
             return lastName;
         if (lastName.endsWith("ey"))
@@ -23,8 +35,8 @@ final class Api {
         return lastName + "s"; 
     }
 
-    static String getLastName(Resource.ClassData resource){
-        String kebabCase = Case.camelToKebab(resource.name);
+    static String getLastName(String name){
+        String kebabCase = Case.camelToKebab(name);
         String[] kebabChunks = kebabCase.split("-");
         return kebabChunks[kebabChunks.length - 1];
     }
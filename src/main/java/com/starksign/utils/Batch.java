@@ -0,0 +1,103 @@
+package com.starksign.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+
+public final class Batch {
+
+    private Batch() {}
+
+    /**
+     * Run an asynchronous task for every item, keeping at most "concurrency" tasks in flight,
+     * and wait for all of them to finish
+     * <p>
+     * Return:
+     * @return one Result per item, in the same order as the items
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public static <I, O> List<Result<O>> run(List<I> items, int concurrency, Function<I, CompletableFuture<O>> task)
+            throws InterruptedException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        List<Result<O>> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(null);
+        }
+        Semaphore permits = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            permits.acquire();
+            CompletableFuture<O> future;
+            try {
+                future = task.apply(items.get(i));
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            future.whenComplete((value, error) -> {
+                synchronized (results) {
+                    results.set(index, error == null ? Result.success(value) : Result.failure(unwrap(error)));
+                }
+                permits.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        synchronized (results) {
+            return results;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    public static final class Result<T> {
+        /**
+         * Result object
+         * <p>
+         * Outcome of a single item in a batch operation. Exactly one of value and error is set.
+         * <p>
+         * Parameters:
+         * value [object]: result of the item, if it succeeded
+         * error [Throwable]: error raised by the item, if it failed. ex: InputErrors
+         */
+        public final T value;
+        public final Throwable error;
+
+        private Result(T value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        static <T> Result<T> success(T value) {
+            return new Result<>(value, null);
+        }
+
+        static <T> Result<T> failure(Throwable error) {
+            return new Result<>(null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return isSuccess() ? "Result(" + value + ")" : "Result(error=" + error + ")";
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package com.starksign.utils;
 
 import com.starksign.Settings;
-import com.starkbank.ellipticcurve.PrivateKey;
 
 import java.util.Arrays;
 
 
 public final class Check {
     public static String key(String key) throws Exception {
-        int a=1;
         try {
-            PrivateKey privateKey = PrivateKey.fromPem(key);
-            if (!privateKey.curve.name.equals("secp256k1")) {
+            if (!EcdsaSigner.fromPem(key).curveName().equals("secp256k1")) {
                 throw new Exception();
             }
         } catch (Exception e) {
@@ -20,6 +17,13 @@ public final class Check {
         return key;
     }
 
+    public static String baseUrl(String baseUrl) throws Exception {
+        if (!baseUrl.startsWith("http://") && !baseUrl.startsWith("https://")) {
+            throw new Exception("baseUrl must start with http:// or https://");
+        }
+        return baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
     public static String environment(String environment) throws Exception {
         String[] validEnvironments = {"sandbox", "production"};
         if (Arrays.asList(validEnvironments).contains(environment)){
@@ -31,8 +35,11 @@ public final class Check {
     }
 
     public static String language() throws Exception {
+        return language(Settings.language);
+    }
+
+    public static String language(String language) throws Exception {
         String[] validLanguages = {"en-US", "pt-BR"};
-        String language = Settings.language;
         if (Arrays.asList(validLanguages).contains(language)){
             return language;
         }
@@ -1,5 +1,6 @@
 package com.starksign.utils;
 
+import com.starksign.Instrumentation;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
@@ -9,17 +10,22 @@ import java.util.Map;
 
 interface ClientService {
     @GET
-    Call<ResponseBody> get(@retrofit2.http.Url String path, @HeaderMap Map<String, String> headers);
+    Call<ResponseBody> get(@retrofit2.http.Url String path, @HeaderMap Map<String, String> headers,
+            @Tag Instrumentation instrumentation);
 
     @POST
-    Call<ResponseBody> post(@retrofit2.http.Url String path, @Body RequestBody body, @HeaderMap Map<String, String> headers);
+    Call<ResponseBody> post(@retrofit2.http.Url String path, @Body RequestBody body, @HeaderMap Map<String, String> headers,
+            @Tag Instrumentation instrumentation);
 
     @PUT
-    Call<ResponseBody> put(@retrofit2.http.Url String path, @Body RequestBody body, @HeaderMap Map<String, String> headers);
+    Call<ResponseBody> put(@retrofit2.http.Url String path, @Body RequestBody body, @HeaderMap Map<String, String> headers,
+            @Tag Instrumentation instrumentation);
 
     @PATCH
-    Call<ResponseBody> patch(@retrofit2.http.Url String path, @Body RequestBody body, @HeaderMap Map<String, String> headers);
+    Call<ResponseBody> patch(@retrofit2.http.Url String path, @Body RequestBody body, @HeaderMap Map<String, String> headers,
+            @Tag Instrumentation instrumentation);
 
     @DELETE
-    Call<ResponseBody> delete(@retrofit2.http.Url String path, @HeaderMap Map<String, String> headers);
+    Call<ResponseBody> delete(@retrofit2.http.Url String path, @HeaderMap Map<String, String> headers,
+            @Tag Instrumentation instrumentation);
 }
\ No newline at end of file
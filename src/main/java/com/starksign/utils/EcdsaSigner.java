@@ -0,0 +1,135 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.Curve;
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starkbank.ellipticcurve.Signature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+
+/**
+ * ECDSA signer bound to a single private key.
+ * <p>
+ * Signers parsed from PEM or derived from signer tokens are kept in bounded caches, so repeated signatures with
+ * the same key skip the PEM and ASN.1 decoding or the token key derivation. The caches are keyed by a SHA-256 of
+ * the key material, so PEMs and tokens are not retained as strings. Signatures are always computed by
+ * starkbank-ecdsa; messages that were already hashed, like streamed contents, are handed to it as their digest.
+ */
+public final class EcdsaSigner {
+    private static final int cacheSize = 256;
+    private static final LruCache<String, EcdsaSigner> cache = new LruCache<>(cacheSize);
+    private static final LruCache<String, EcdsaSigner> tokenCache = new LruCache<>(cacheSize);
+
+    private final PrivateKey privateKey;
+
+    public EcdsaSigner(PrivateKey privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    /**
+     * Signer for a PEM private key, parsed on first use and cached afterwards
+     */
+    public static EcdsaSigner fromPem(String pem) {
+        String key = cacheKey(pem.getBytes(StandardCharsets.UTF_8));
+        EcdsaSigner signer = cache.get(key);
+        if (signer == null) {
+            signer = new EcdsaSigner(PrivateKey.fromPem(pem));
+            cache.put(key, signer);
+        }
+        return signer;
+    }
+
+    /**
+     * Signer for a token signature, whose secp256k1 secret is SHA-256(id:signerId:token), derived on first use
+     * and cached afterwards
+     */
+    public static EcdsaSigner fromToken(String id, String signerId, String token) {
+        byte[] secret = Hash.sha256((id + ":" + signerId + ":" + token).getBytes(StandardCharsets.UTF_8));
+        String key = cacheKey(secret);
+        EcdsaSigner signer = tokenCache.get(key);
+        if (signer == null) {
+            signer = new EcdsaSigner(new PrivateKey(Curve.secp256k1, new BigInteger(1, secret)));
+            tokenCache.put(key, signer);
+        }
+        return signer;
+    }
+
+    /**
+     * Name of the key's curve, so the private key itself never leaves this class
+     */
+    String curveName() {
+        return privateKey.curve.name;
+    }
+
+    public Signature sign(String content) {
+        return sign(Hash.sha256(content));
+    }
+
+    /**
+     * Sign a message, reusing its digest if the message is a String held by the store, such as a ContentStore.
+     * Any other message is hashed and left out of the store. A null store hashes the message.
+     */
+    public Signature sign(String content, StringStore store) {
+        byte[] digest = store == null ? null : store.digestIfPresent(content);
+        return sign(digest == null ? Hash.sha256(content) : digest);
+    }
+
+    /**
+     * Sign a message read from a character stream, hashed incrementally as UTF-8
+     */
+    public Signature sign(Reader content) throws IOException {
+        return sign(Hash.sha256(content));
+    }
+
+    /**
+     * Sign a message read from a stream of UTF-8 bytes, hashed incrementally
+     */
+    public Signature sign(InputStream content) throws IOException {
+        return sign(Hash.sha256(content));
+    }
+
+    /**
+     * Sign a precomputed SHA-256 message digest
+     */
+    public Signature sign(byte[] hash) {
+        return Ecdsa.sign("", privateKey, new Digested(hash));
+    }
+
+    private static String cacheKey(byte[] secret) {
+        return Base64.getEncoder().encodeToString(Hash.sha256(secret));
+    }
+
+    /**
+     * MessageDigest that ignores its input and yields a digest computed beforehand, so starkbank-ecdsa can sign
+     * a message without hashing it again
+     */
+    private static final class Digested extends MessageDigest {
+        private final byte[] hash;
+
+        private Digested(byte[] hash) {
+            super("SHA-256");
+            this.hash = hash;
+        }
+
+        @Override
+        protected void engineUpdate(byte input) {}
+
+        @Override
+        protected void engineUpdate(byte[] input, int offset, int length) {}
+
+        @Override
+        protected byte[] engineDigest() {
+            return hash.clone();
+        }
+
+        @Override
+        protected void engineReset() {}
+    }
+}
@@ -0,0 +1,83 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.Curve;
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PublicKey;
+import com.starkbank.ellipticcurve.Signature;
+
+import java.math.BigInteger;
+import java.util.function.Supplier;
+
+
+/**
+ * ECDSA verifier bound to a single public key.
+ * <p>
+ * Verification computes u1 * G + u2 * Q with fixed-base tables for both the secp256k1 generator G (shared by
+ * all verifiers) and the public key Q (built once per key), so no point doubling happens per signature.
+ * Keys on any other curve are verified by starkbank-ecdsa.
+ */
+final class EcdsaVerifier {
+    private static volatile PointTable generatorTable;
+
+    final PublicKey publicKey;
+    private final PointTable publicKeyTable;
+
+    EcdsaVerifier(PublicKey publicKey) {
+        this.publicKey = publicKey;
+        this.publicKeyTable = isSecp256k1(publicKey.curve) ? new PointTable(publicKey.curve, publicKey.point) : null;
+    }
+
+    boolean verify(String content, Signature signature) {
+        if (publicKeyTable == null) {
+            return Ecdsa.verify(content, signature, publicKey);
+        }
+        return verify(Hash.sha256(content), signature);
+    }
+
+    /**
+     * Verify a message already hashed with SHA-256. The message text is only requested for keys outside secp256k1,
+     * which starkbank-ecdsa has to hash by itself.
+     */
+    boolean verify(byte[] hash, Supplier<String> content, Signature signature) {
+        if (publicKeyTable == null) {
+            return Ecdsa.verify(content.get(), signature, publicKey);
+        }
+        return verify(hash, signature);
+    }
+
+    boolean verify(byte[] hash, Signature signature) {
+        Curve curve = publicKey.curve;
+        BigInteger r = signature.r;
+        BigInteger s = signature.s;
+        if (r.signum() <= 0 || r.compareTo(curve.N) >= 0 || s.signum() <= 0 || s.compareTo(curve.N) >= 0) {
+            return false;
+        }
+        BigInteger numberMessage = new BigInteger(1, hash);
+        BigInteger inverseS = s.modInverse(curve.N);
+        BigInteger u1 = numberMessage.multiply(inverseS).mod(curve.N);
+        BigInteger u2 = r.multiply(inverseS).mod(curve.N);
+
+        PointTable.Jacobian point = generatorTable(curve).multiplyAdd(PointTable.Jacobian.infinity, u1);
+        point = publicKeyTable.multiplyAdd(point, u2);
+        BigInteger x = publicKeyTable.affineX(point);
+        return x != null && x.mod(curve.N).equals(r);
+    }
+
+    static PointTable generatorTable(Curve curve) {
+        PointTable table = generatorTable;
+        if (table == null) {
+            synchronized (EcdsaVerifier.class) {
+                table = generatorTable;
+                if (table == null) {
+                    table = new PointTable(curve, curve.G);
+                    generatorTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    static boolean isSecp256k1(Curve curve) {
+        return curve != null && "secp256k1".equals(curve.name);
+    }
+}
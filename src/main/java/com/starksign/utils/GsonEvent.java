@@ -2,19 +2,33 @@ package com.starksign.utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.starksign.Document;
+import com.starksign.SignatureRequest;
 
 
 class GsonEvent {
-     private static Gson instance;
+     private static final Gson instance = builder().create();
+     private static final Gson prettyInstance = builder().setPrettyPrinting().create();
 
      private GsonEvent() {}
 
-     public static synchronized Gson getInstance()
+     public static Gson getInstance()
      {
-         if(instance == null)
-             instance = new GsonBuilder()
-                     .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSSZ")
-                     .create();
          return instance;
      }
+
+     public static Gson getPrettyInstance()
+     {
+         return prettyInstance;
+     }
+
+     private static GsonBuilder builder()
+     {
+         return new GsonBuilder()
+                 .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSSSSZ")
+                 .registerTypeAdapter(Document.class, new Adapters.DocumentAdapter().nullSafe())
+                 .registerTypeAdapter(Document.Signer.class, new Adapters.SignerAdapter().nullSafe())
+                 .registerTypeAdapter(Document.Signature.class, new Adapters.SignatureAdapter().nullSafe())
+                 .registerTypeAdapter(SignatureRequest.class, new Adapters.SignatureRequestAdapter().nullSafe());
+     }
 }
@@ -0,0 +1,128 @@
+package com.starksign.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * SHA-256 helpers that never hold more than a fixed-size buffer of the message in memory.
+ * Text is hashed as its UTF-8 encoding, the same bytes String.getBytes(UTF_8) would produce.
+ */
+public final class Hash {
+    private static final int bufferSize = 8192;
+
+    private static final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private Hash() {}
+
+    /**
+     * SHA-256 digest reusing one MessageDigest per thread
+     */
+    static byte[] sha256(byte[] bytes) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        return digest.digest(bytes);
+    }
+
+    static byte[] sha256(ByteBuffer bytes) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        digest.update(bytes.duplicate());
+        return digest.digest();
+    }
+
+    public static byte[] sha256(CharSequence content) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        CharsetEncoder encoder = encoder();
+        ByteBuffer bytes = ByteBuffer.allocate(bufferSize);
+        encode(digest, encoder, CharBuffer.wrap(content), bytes, true);
+        finish(digest, encoder, bytes);
+        return digest.digest();
+    }
+
+    /**
+     * SHA-256 digest of prefix followed by content, without concatenating them
+     */
+    public static byte[] sha256(String prefix, CharSequence content) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        digest.update(prefix.getBytes(StandardCharsets.UTF_8));
+        CharsetEncoder encoder = encoder();
+        ByteBuffer bytes = ByteBuffer.allocate(bufferSize);
+        encode(digest, encoder, CharBuffer.wrap(content), bytes, true);
+        finish(digest, encoder, bytes);
+        return digest.digest();
+    }
+
+    static byte[] sha256(Reader content) throws IOException {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        CharsetEncoder encoder = encoder();
+        ByteBuffer bytes = ByteBuffer.allocate(bufferSize);
+        CharBuffer chars = CharBuffer.allocate(bufferSize);
+        while (content.read(chars) != -1) {
+            chars.flip();
+            encode(digest, encoder, chars, bytes, false);
+            chars.compact();
+        }
+        chars.flip();
+        encode(digest, encoder, chars, bytes, true);
+        finish(digest, encoder, bytes);
+        return digest.digest();
+    }
+
+    static byte[] sha256(InputStream content) throws IOException {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        byte[] buffer = new byte[bufferSize];
+        int count;
+        while ((count = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, count);
+        }
+        return digest.digest();
+    }
+
+    private static CharsetEncoder encoder() {
+        return StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static void encode(MessageDigest digest, CharsetEncoder encoder, CharBuffer chars, ByteBuffer bytes, boolean end) {
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, end);
+            drain(digest, bytes);
+        } while (result.isOverflow());
+    }
+
+    private static void finish(MessageDigest digest, CharsetEncoder encoder, ByteBuffer bytes) {
+        CoderResult result;
+        do {
+            result = encoder.flush(bytes);
+            drain(digest, bytes);
+        } while (result.isOverflow());
+    }
+
+    private static void drain(MessageDigest digest, ByteBuffer bytes) {
+        bytes.flip();
+        digest.update(bytes);
+        bytes.clear();
+    }
+}
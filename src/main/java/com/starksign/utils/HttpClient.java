@@ -1,44 +1,126 @@
 package com.starksign.utils;
 
-import com.starksign.PublicUser;
+import com.starksign.HttpConfig;
+import com.starksign.StarkSignClient;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import retrofit2.Retrofit;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 
+/**
+ * Retrofit services per HttpConfig and API address.
+ * <p>
+ * HttpConfig has no equals(), so configurations are told apart by identity and only weakly referenced: once an
+ * HttpConfig is no longer reachable, its services are dropped, its dispatcher is shut down and its idle connections
+ * are closed the next time any service is looked up.
+ */
 final class HttpClient {
-    private static ClientService productionInstance;
-    private static ClientService sandboxInstance;
+    private static final ConcurrentHashMap<ConfigReference, Services> instances = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<HttpConfig> collected = new ReferenceQueue<>();
     private static final String version = "v2/";
 
     private HttpClient() {}
 
-    public static synchronized ClientService getProjectInstance(PublicUser user) throws Exception {
-        switch (user.environment)
-        {
-            case "production":
-                if(productionInstance == null)
-                    productionInstance = makeInstance("https://api.starksign.com/");
-                return productionInstance;
-            case "sandbox":
-                if(sandboxInstance == null)
-                    sandboxInstance = makeInstance("https://sandbox.api.starksign.com/");
-                return sandboxInstance;
-            default:
-                throw new Exception("Unexpected environment: " + user.environment);
+    public static ClientService getProjectInstance(StarkSignClient client) throws Exception {
+        return getInstance(client.baseUrl, client.httpConfig);
+    }
+
+    private static ClientService getInstance(String baseUrl, HttpConfig config) {
+        Services services = instances.get(new ConfigReference(config, null));
+        if (services == null) {
+            shutDownCollected();
+            services = instances.computeIfAbsent(new ConfigReference(config, collected), key -> new Services(config));
+        }
+        ClientService service = services.byBaseUrl.get(baseUrl);
+        if (service != null) {
+            return service;
+        }
+        return services.byBaseUrl.computeIfAbsent(baseUrl, key -> makeInstance(baseUrl, config));
+    }
+
+    private static void shutDownCollected() {
+        Reference<? extends HttpConfig> reference;
+        while ((reference = collected.poll()) != null) {
+            Services services = instances.remove(reference);
+            if (services != null) {
+                services.shutDown();
+            }
         }
     }
 
-    private static ClientService makeInstance(String baseUrl)
+    private static ClientService makeInstance(String baseUrl, HttpConfig config)
     {
         OkHttpClient client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
+                .connectionPool(config.connectionPool())
+                .dispatcher(config.dispatcher())
+                .eventListenerFactory(InstrumentationListener.factory)
+                .protocols(config.http2
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .connectTimeout(config.connectTimeoutSeconds, TimeUnit.SECONDS)
+                .readTimeout(config.readTimeoutSeconds, TimeUnit.SECONDS)
+                .writeTimeout(config.writeTimeoutSeconds, TimeUnit.SECONDS)
+                .callTimeout(config.callTimeoutSeconds, TimeUnit.SECONDS)
                 .build();
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(baseUrl + version)
                 .client(client).build();
         return retrofit.create(ClientService.class);
     }
+
+    /**
+     * Services of a single HttpConfig. It holds the config's pool and dispatcher, but not the config itself,
+     * so it does not keep the config reachable.
+     */
+    private static final class Services {
+        private final ConcurrentHashMap<String, ClientService> byBaseUrl = new ConcurrentHashMap<>();
+        private final ConnectionPool connectionPool;
+        private final Dispatcher dispatcher;
+
+        private Services(HttpConfig config) {
+            this.connectionPool = config.connectionPool();
+            this.dispatcher = config.dispatcher();
+        }
+
+        private void shutDown() {
+            dispatcher.executorService().shutdown();
+            connectionPool.evictAll();
+        }
+    }
+
+    private static final class ConfigReference extends WeakReference<HttpConfig> {
+        private final int hashCode;
+
+        private ConfigReference(HttpConfig config, ReferenceQueue<HttpConfig> queue) {
+            super(config, queue);
+            this.hashCode = System.identityHashCode(config);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) {
+                return true;
+            }
+            if (!(other instanceof ConfigReference)) {
+                return false;
+            }
+            HttpConfig config = get();
+            return config != null && config == ((ConfigReference) other).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
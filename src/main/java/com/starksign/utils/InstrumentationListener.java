@@ -0,0 +1,80 @@
+package com.starksign.utils;
+
+import com.starksign.Instrumentation;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+
+/**
+ * Bridge from OkHttp's connection events to an Instrumentation.
+ * <p>
+ * The Instrumentation travels as a request tag, so a single OkHttpClient serves every client configuration.
+ * Requests without a tag get EventListener.NONE and pay nothing but the tag lookup.
+ */
+final class InstrumentationListener extends EventListener {
+    static final EventListener.Factory factory = call -> {
+        Instrumentation instrumentation = call.request().tag(Instrumentation.class);
+        if (instrumentation == null) {
+            return EventListener.NONE;
+        }
+        return new InstrumentationListener(instrumentation);
+    };
+
+    private final Instrumentation instrumentation;
+    private long dnsStart;
+    private long connectStart;
+    private long tlsStart;
+
+    private InstrumentationListener(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        instrumentation.onDns(domainName, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        instrumentation.onTls(call.request().url().host(), System.nanoTime() - tlsStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        instrumentation.onConnect(call.request().url().host(), System.nanoTime() - connectStart, null);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        instrumentation.onConnect(call.request().url().host(), System.nanoTime() - connectStart, ioe);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        instrumentation.onResponseBody(call.request().url().encodedPath(), byteCount);
+    }
+}
@@ -0,0 +1,52 @@
+package com.starksign.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Thread-safe map bounded to maxSize entries, evicting the least recently used one first.
+ */
+public final class LruCache<K, V> {
+    private final LinkedHashMap<K, V> entries;
+
+    public LruCache(int maxSize) {
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Stores value only if key is not present, returning the current value or null if value was stored
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V current = entries.get(key);
+        if (current == null) {
+            entries.put(key, value);
+        }
+        return current;
+    }
+
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -1,74 +1,231 @@
 package com.starksign.utils;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.starkbank.ellipticcurve.Ecdsa;
+import com.google.gson.stream.JsonReader;
 import com.starkbank.ellipticcurve.PublicKey;
 import com.starkbank.ellipticcurve.Signature;
 import com.starkbank.ellipticcurve.utils.ByteString;
+import com.starksign.Instrumentation;
+import com.starksign.StarkSignClient;
 import com.starksign.error.InvalidSignatureError;
 
-import java.lang.reflect.Type;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 public final class Parse{
 
+    private static final String publicKeyLimit = "5";
+
     public static <T extends SubResource> T parseAndVerify(Resource.ClassData resource, String content, String signature) throws Exception {
-        String verifiedContent = verify(content, signature);
-        Gson gson = GsonEvent.getInstance();
-        JsonObject contentJson = gson.fromJson(verifiedContent, JsonObject.class);
-        JsonObject jsonObject = contentJson.getAsJsonObject();
-        if (Api.getLastName(resource).equals("event")){
-            jsonObject = contentJson.get(Api.getLastName(resource)).getAsJsonObject();
-        }
-        return gson.fromJson(jsonObject, (Type) resource.cls);
+        return parseAndVerify(resource, content, signature, StarkSignClient.fromSettings());
+    }
+
+    public static <T extends SubResource> T parseAndVerify(Resource.ClassData resource, String content, String signature,
+                                                           StarkSignClient client) throws Exception {
+        String verifiedContent = verify(content, signature, client);
+        return bind(resource, new StringReader(verifiedContent));
+    }
+
+    public static <T extends SubResource> T parseAndVerify(Resource.ClassData resource, byte[] content, String signature) throws Exception {
+        return parseAndVerify(resource, content, signature, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Verify and bind a request body exactly as received, without decoding it into a String first.
+     * The bytes are hashed once for every public key tried and, once verified, decoded as UTF-8 straight into the resource.
+     */
+    public static <T extends SubResource> T parseAndVerify(Resource.ClassData resource, byte[] content, String signature,
+                                                           StarkSignClient client) throws Exception {
+        verify(Hash.sha256(content), () -> new String(content, StandardCharsets.UTF_8), signature, client);
+        return bind(resource, new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8));
+    }
+
+    public static <T extends SubResource> T parseAndVerify(Resource.ClassData resource, ByteBuffer content, String signature) throws Exception {
+        return parseAndVerify(resource, content, signature, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Same as parseAndVerify(resource, byte[], signature, client), reading the buffer's remaining bytes.
+     * The buffer's position is left untouched.
+     */
+    public static <T extends SubResource> T parseAndVerify(Resource.ClassData resource, ByteBuffer content, String signature,
+                                                           StarkSignClient client) throws Exception {
+        verify(Hash.sha256(content), () -> StandardCharsets.UTF_8.decode(content.duplicate()).toString(), signature, client);
+        return bind(resource, new InputStreamReader(new ByteBufferInputStream(content.duplicate()), StandardCharsets.UTF_8));
     }
 
     public static String verify (String content, String signature) throws Exception {
+        return verify(content, signature, StarkSignClient.fromSettings());
+    }
+
+    public static String verify (String content, String signature, StarkSignClient client) throws Exception {
+        verify(Hash.sha256(content), () -> content, signature, client);
+        return content;
+    }
+
+    private static void verify(byte[] hash, Supplier<String> content, String signature, StarkSignClient client) throws Exception {
         Signature signatureObject;
         try {
-            signatureObject = Signature.fromBase64(new ByteString(signature.getBytes()));
+            signatureObject = Signature.fromBase64(new ByteString(signature.getBytes(StandardCharsets.US_ASCII)));
         } catch (Error | RuntimeException e) {
             throw new InvalidSignatureError("The provided signature is not valid");
         }
 
-        if (verifySignature(content, signatureObject, false)) {
-            return content;
+        PublicKeyCache cache = PublicKeyCache.of(client.baseUrl);
+        Callable<List<EcdsaVerifier>> fetcher = () -> getStarkPublicKeys(client);
+        Instrumentation instrumentation = client.instrumentation;
+        SignatureCache verified = client.verificationCache;
+        List<EcdsaVerifier> verifiers = cache.get(client.publicKeyTtlSeconds, fetcher, instrumentation);
+        if (verified != null && verified.contains(hash, signature, verifiers)) {
+            return;
+        }
+        if (verifySignature(hash, content, signatureObject, verifiers, cache, instrumentation)) {
+            if (verified != null) {
+                verified.put(hash, signature, verifiers);
+            }
+            return;
         }
-        if (verifySignature(content, signatureObject, true)) {
-            return content;
+        List<EcdsaVerifier> refreshedVerifiers = cache.refresh(client.publicKeyRefreshIntervalSeconds, fetcher, instrumentation);
+        if (refreshedVerifiers != verifiers && verifySignature(hash, content, signatureObject, refreshedVerifiers, cache, instrumentation)) {
+            if (verified != null) {
+                verified.put(hash, signature, refreshedVerifiers);
+            }
+            return;
         }
 
         throw new InvalidSignatureError("The provided signature and content do not match the Stark Infra public key");
     }
 
-    private static boolean verifySignature(String content, Signature signature, boolean refresh) throws Exception {
-        PublicKey publicKey = Cache.starkPublicKey;
-        if (publicKey == null || refresh) {
-            publicKey = getStarkPublicKey();
-            Cache.starkPublicKey = publicKey;
+    private static <T extends SubResource> T bind(Resource.ClassData resource, Reader content) throws IOException {
+        try (JsonReader reader = new JsonReader(content)) {
+            if (Api.getLastName(resource).equals("event")) {
+                return Rest.readEnvelope(resource, reader);
+            }
+            @SuppressWarnings("unchecked")
+            T entity = (T) GsonEvent.getInstance().getAdapter(resource.cls).read(reader);
+            return entity;
         }
-        return Ecdsa.verify(content, signature, publicKey);
     }
 
-    private static PublicKey getStarkPublicKey() throws Exception {
+    /**
+     * Fetch the Stark Sign public keys ahead of time
+     * <p>
+     * Call it while your application is booting, after setting Settings.environment,
+     * so the first parsed request does not have to wait for the public keys to be downloaded.
+     * @throws Exception error in the request
+     */
+    public static void warmUp() throws Exception {
+        warmUp(StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Fetch the Stark Sign public keys of the client's environment ahead of time
+     * <p>
+     * Same as Parse.warmUp(), using the given client instead of Settings.
+     * @param client [StarkSignClient]: client used in the request
+     * @throws Exception error in the request
+     */
+    public static void warmUp(StarkSignClient client) throws Exception {
+        PublicKeyCache.of(client.baseUrl).get(
+            client.publicKeyTtlSeconds, () -> getStarkPublicKeys(client), client.instrumentation
+        );
+    }
+
+    private static boolean verifySignature(byte[] hash, Supplier<String> content, Signature signature, List<EcdsaVerifier> verifiers,
+                                           PublicKeyCache cache, Instrumentation instrumentation) {
+        if (instrumentation == Instrumentation.NOOP) {
+            return verifySignature(hash, content, signature, verifiers, cache);
+        }
+        long start = System.nanoTime();
+        boolean valid = verifySignature(hash, content, signature, verifiers, cache);
+        instrumentation.onVerify(System.nanoTime() - start, valid);
+        return valid;
+    }
+
+    private static boolean verifySignature(byte[] hash, Supplier<String> content, Signature signature, List<EcdsaVerifier> verifiers,
+                                           PublicKeyCache cache) {
+        EcdsaVerifier lastVerified = cache.lastVerified;
+        if (lastVerified != null && verifiers.contains(lastVerified) && lastVerified.verify(hash, content, signature)) {
+            return true;
+        }
+        for (EcdsaVerifier verifier : verifiers) {
+            if (verifier == lastVerified) {
+                continue;
+            }
+            if (verifier.verify(hash, content, signature)) {
+                cache.lastVerified = verifier;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<EcdsaVerifier> getStarkPublicKeys(StarkSignClient client) throws Exception {
         HashMap<String, Object> query = new HashMap<>();
-        query.put("limit", "1");
+        query.put("limit", publicKeyLimit);
         String content = Response.fetch(
             "/public-key",
             "GET",
             null,
-            query
+            query,
+            null,
+            client
         ).content();
-        JsonObject contentJson = new Gson().fromJson(content, JsonObject.class);
-        JsonArray publicKeys = contentJson.get("publicKeys").getAsJsonArray();
-        return PublicKey.fromPem(
-                publicKeys.get(0).getAsJsonObject().get("content").getAsString()
-        );
+        JsonObject contentJson = GsonEvent.getInstance().fromJson(content, JsonObject.class);
+        JsonArray publicKeysJson = contentJson.get("publicKeys").getAsJsonArray();
+        List<EcdsaVerifier> publicKeys = new ArrayList<>();
+        for (JsonElement publicKey : publicKeysJson) {
+            publicKeys.add(new EcdsaVerifier(
+                PublicKey.fromPem(publicKey.getAsJsonObject().get("content").getAsString())
+            ));
+        }
+        if (publicKeys.isEmpty()) {
+            throw new InvalidSignatureError("No Stark Sign public key is available");
+        }
+        return publicKeys;
     }
-}
 
-abstract class Cache {
-    public static PublicKey starkPublicKey = null;
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.Curve;
+import com.starkbank.ellipticcurve.Point;
+
+import java.math.BigInteger;
+
+
+/**
+ * Fixed-base multiplication table for a single elliptic curve point.
+ * <p>
+ * For every 4-bit window i of the scalar, the table holds the affine points j * 16^i * P for j in [1, 15].
+ * Multiplying P by a scalar then costs one mixed addition per non-zero window and no doublings, which pays off
+ * whenever the same point is multiplied many times, like the curve generator and the Stark Sign public keys.
+ */
+final class PointTable {
+    private static final int windowBits = 4;
+    private static final int windowSize = 1 << windowBits;
+
+    private final BigInteger A;
+    private final BigInteger P;
+    private final BigInteger[][] xs;
+    private final BigInteger[][] ys;
+
+    PointTable(Curve curve, Point point) {
+        this.A = curve.A;
+        this.P = curve.P;
+
+        int windows = (curve.N.bitLength() + windowBits - 1) / windowBits;
+        this.xs = new BigInteger[windows][windowSize];
+        this.ys = new BigInteger[windows][windowSize];
+
+        Jacobian base = new Jacobian(point.x.mod(P), point.y.mod(P), BigInteger.ONE);
+        for (int window = 0; window < windows; window++) {
+            BigInteger[] affineBase = toAffine(base);
+            xs[window][1] = affineBase[0];
+            ys[window][1] = affineBase[1];
+            Jacobian multiple = new Jacobian(affineBase[0], affineBase[1], BigInteger.ONE);
+            for (int j = 2; j < windowSize; j++) {
+                multiple = addAffine(multiple, affineBase[0], affineBase[1]);
+                BigInteger[] affine = toAffine(multiple);
+                xs[window][j] = affine[0];
+                ys[window][j] = affine[1];
+            }
+            for (int i = 0; i < windowBits; i++) {
+                base = doubled(base);
+            }
+        }
+    }
+
+    /**
+     * Add scalar * P to an accumulator point in Jacobian coordinates
+     */
+    Jacobian multiplyAdd(Jacobian accumulator, BigInteger scalar) {
+        for (int window = 0; window < xs.length; window++) {
+            int digit = 0;
+            for (int bit = 0; bit < windowBits; bit++) {
+                if (scalar.testBit(window * windowBits + bit)) {
+                    digit |= 1 << bit;
+                }
+            }
+            if (digit != 0) {
+                BigInteger x = xs[window][digit];
+                if (x == null) {
+                    continue;
+                }
+                accumulator = addAffine(accumulator, x, ys[window][digit]);
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Affine x coordinate of a Jacobian point, or null for the point at infinity
+     */
+    BigInteger affineX(Jacobian point) {
+        if (point.isInfinity()) {
+            return null;
+        }
+        BigInteger zInverse = point.z.modInverse(P);
+        return point.x.multiply(zInverse.multiply(zInverse)).mod(P);
+    }
+
+    private BigInteger[] toAffine(Jacobian point) {
+        if (point.isInfinity()) {
+            return new BigInteger[]{null, null};
+        }
+        BigInteger zInverse = point.z.modInverse(P);
+        BigInteger zInverse2 = zInverse.multiply(zInverse).mod(P);
+        return new BigInteger[]{
+            point.x.multiply(zInverse2).mod(P),
+            point.y.multiply(zInverse2).multiply(zInverse).mod(P)
+        };
+    }
+
+    private Jacobian addAffine(Jacobian point, BigInteger x2, BigInteger y2) {
+        if (x2 == null) {
+            return point;
+        }
+        if (point.isInfinity()) {
+            return new Jacobian(x2, y2, BigInteger.ONE);
+        }
+        BigInteger z1z1 = point.z.multiply(point.z).mod(P);
+        BigInteger u2 = x2.multiply(z1z1).mod(P);
+        BigInteger s2 = y2.multiply(point.z).multiply(z1z1).mod(P);
+        BigInteger h = u2.subtract(point.x).mod(P);
+        BigInteger r = s2.subtract(point.y).mod(P);
+        if (h.signum() == 0) {
+            if (r.signum() == 0) {
+                return doubled(point);
+            }
+            return Jacobian.infinity;
+        }
+        BigInteger hh = h.multiply(h).mod(P);
+        BigInteger hhh = h.multiply(hh).mod(P);
+        BigInteger v = point.x.multiply(hh).mod(P);
+        BigInteger x3 = r.multiply(r).subtract(hhh).subtract(v.shiftLeft(1)).mod(P);
+        BigInteger y3 = r.multiply(v.subtract(x3)).subtract(point.y.multiply(hhh)).mod(P);
+        BigInteger z3 = point.z.multiply(h).mod(P);
+        return new Jacobian(x3, y3, z3);
+    }
+
+    private Jacobian doubled(Jacobian point) {
+        if (point.isInfinity() || point.y.signum() == 0) {
+            return Jacobian.infinity;
+        }
+        BigInteger yy = point.y.multiply(point.y).mod(P);
+        BigInteger s = point.x.multiply(yy).shiftLeft(2).mod(P);
+        BigInteger zz = point.z.multiply(point.z).mod(P);
+        BigInteger m = point.x.multiply(point.x).multiply(BigInteger.valueOf(3))
+            .add(A.multiply(zz.multiply(zz))).mod(P);
+        BigInteger x3 = m.multiply(m).subtract(s.shiftLeft(1)).mod(P);
+        BigInteger y3 = m.multiply(s.subtract(x3)).subtract(yy.multiply(yy).shiftLeft(3)).mod(P);
+        BigInteger z3 = point.y.multiply(point.z).shiftLeft(1).mod(P);
+        return new Jacobian(x3, y3, z3);
+    }
+
+    static final class Jacobian {
+        static final Jacobian infinity = new Jacobian(BigInteger.ZERO, BigInteger.ONE, BigInteger.ZERO);
+
+        final BigInteger x;
+        final BigInteger y;
+        final BigInteger z;
+
+        Jacobian(BigInteger x, BigInteger y, BigInteger z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        boolean isInfinity() {
+            return z.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.starksign.utils;
+
+import com.starksign.Instrumentation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Stark Sign public keys holder for a single API address (StarkSignClient.baseUrl).
+ * <p>
+ * The recent set of keys is kept, each with its own precomputed EcdsaVerifier, so signatures made with either
+ * side of a key rotation verify locally.
+ * The set is safely published to all threads, expires after a TTL and is refreshed by a single request that all
+ * concurrent callers join. Refreshes triggered by failed verifications are rate-limited, so a burst of invalid
+ * signatures cannot turn into a burst of requests to /public-key.
+ */
+final class PublicKeyCache {
+    private static final ConcurrentHashMap<String, PublicKeyCache> caches = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, Entry> refreshes = new SingleFlight<>();
+    private volatile Entry entry;
+    volatile EcdsaVerifier lastVerified;
+
+    private PublicKeyCache() {}
+
+    static PublicKeyCache of(String baseUrl) {
+        PublicKeyCache cache = caches.get(baseUrl);
+        if (cache != null) {
+            return cache;
+        }
+        return caches.computeIfAbsent(baseUrl, key -> new PublicKeyCache());
+    }
+
+    /**
+     * Current keys, fetching them with fetcher if there are none yet or if they have outlived ttlSeconds
+     */
+    List<EcdsaVerifier> get(long ttlSeconds, Callable<List<EcdsaVerifier>> fetcher, Instrumentation instrumentation)
+            throws Exception {
+        Entry current = entry;
+        if (current != null && !current.olderThan(ttlSeconds)) {
+            instrumentation.onPublicKeyCache(true);
+            return current.keys;
+        }
+        instrumentation.onPublicKeyCache(false);
+        return load(current, fetcher);
+    }
+
+    /**
+     * Keys to retry with after a failed verification. New keys are only fetched if the current ones are older
+     * than refreshIntervalSeconds; otherwise the current list is returned untouched.
+     */
+    List<EcdsaVerifier> refresh(long refreshIntervalSeconds, Callable<List<EcdsaVerifier>> fetcher,
+                                Instrumentation instrumentation) throws Exception {
+        Entry current = entry;
+        if (current != null && !current.olderThan(refreshIntervalSeconds)) {
+            return current.keys;
+        }
+        instrumentation.onPublicKeyRefresh();
+        return load(current, fetcher);
+    }
+
+    private List<EcdsaVerifier> load(Entry stale, Callable<List<EcdsaVerifier>> fetcher) throws Exception {
+        return refreshes.run("publicKey", () -> {
+            Entry current = entry;
+            if (current != stale) {
+                return current;
+            }
+            Entry fresh = new Entry(fetcher.call());
+            entry = fresh;
+            return fresh;
+        }).keys;
+    }
+
+    private static final class Entry {
+        private final List<EcdsaVerifier> keys;
+        private final long fetchedAt;
+
+        private Entry(List<EcdsaVerifier> keys) {
+            this.keys = Collections.unmodifiableList(keys);
+            this.fetchedAt = System.nanoTime();
+        }
+
+        private boolean olderThan(long seconds) {
+            return System.nanoTime() - fetchedAt >= TimeUnit.SECONDS.toNanos(seconds);
+        }
+    }
+}
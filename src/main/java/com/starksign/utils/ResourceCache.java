@@ -0,0 +1,108 @@
+package com.starksign.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+public class ResourceCache {
+    /**
+     * ResourceCache object
+     * <p>
+     * Bounded cache of resources retrieved by id. Entries younger than maxAgeSeconds are served without any request;
+     * older ones are revalidated with a conditional request (If-None-Match) and only downloaded again if they changed.
+     * When the total weight goes over maxWeight, the least recently used entries are evicted.
+     * Cached objects are shared between callers and must be treated as read-only.
+     * <p>
+     * Parameters:
+     * maxWeight     [long]: maximum total weight of the cached resources. ex: 1000
+     * maxAgeSeconds [long]: time an entry is served without revalidation. ex: 5
+     */
+    private final long maxWeight;
+    private final long maxAgeNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    public ResourceCache(long maxWeight, long maxAgeSeconds) {
+        if (maxWeight < 1 || maxAgeSeconds < 0) {
+            throw new IllegalArgumentException("maxWeight must be positive and maxAgeSeconds must be non-negative");
+        }
+        this.maxWeight = maxWeight;
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+    }
+
+    /**
+     * Weight of a single resource. Every resource weighs 1 unless overridden.
+     */
+    protected long weigh(Object resource) {
+        return 1;
+    }
+
+    /**
+     * Drop every cached version of a resource, ex: after an operation that changes its status
+     */
+    public synchronized void invalidate(SubResource.ClassData resource, String id) {
+        String path = Api.endpoint(resource, id);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            String key = entry.getKey();
+            if (key.equals(path) || key.startsWith(path + "?")) {
+                weight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, Object resource, String etag) {
+        Entry entry = new Entry(resource, etag, weigh(resource), System.nanoTime());
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entry.weight;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    synchronized void revalidated(String key, Entry entry) {
+        if (entries.get(key) == entry) {
+            entries.put(key, new Entry(entry.resource, entry.etag, entry.weight, System.nanoTime()));
+        }
+    }
+
+    final class Entry {
+        final Object resource;
+        final String etag;
+        final long weight;
+        final long validatedAt;
+
+        private Entry(Object resource, String etag, long weight, long validatedAt) {
+            this.resource = resource;
+            this.etag = etag;
+            this.weight = weight;
+            this.validatedAt = validatedAt;
+        }
+
+        boolean isFresh() {
+            return System.nanoTime() - validatedAt < maxAgeNanos;
+        }
+    }
+}
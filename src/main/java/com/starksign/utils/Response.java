@@ -1,52 +1,361 @@
 package com.starksign.utils;
 
 import com.google.gson.JsonObject;
-import com.starksign.PublicUser;
-import com.starksign.Settings;
+import com.starksign.Instrumentation;
+import com.starksign.Limiter;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
 import com.starksign.error.InputErrors;
 import com.starksign.error.UnknownError;
 import com.starksign.error.InternalServerError;
+import com.starksign.error.RateLimitError;
 
+import okhttp3.Headers;
 import okhttp3.MediaType;
+import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
-public final class Response {
+public final class Response implements Closeable {
+
+    private static final String userAgent = "Java-" + System.getProperty("java.version") + "-SDK-Sign-0.0.1";
+    private static final MediaType textPlain = MediaType.parse("text/plain");
+    private static final ConcurrentHashMap<String, Map<String, String>> baseHeaders = new ConcurrentHashMap<>();
+    private static final long maxPermitPollMillis = 50;
 
     public int status;
     public InputStream stream;
+    private final ResponseBody body;
+    private final Headers headers;
 
     public Response(int status, InputStream stream) {
         this.status = status;
         this.stream = stream;
+        this.body = null;
+        this.headers = null;
+    }
+
+    Response(int status, ResponseBody body, Headers headers) {
+        this.status = status;
+        this.stream = body.byteStream();
+        this.body = body;
+        this.headers = headers;
+    }
+
+    /**
+     * Value of a response header, or null if it is absent
+     */
+    public String header(String name) {
+        if (headers == null) {
+            return null;
+        }
+        return headers.get(name);
     }
 
     public String content() throws java.io.IOException {
         StringBuilder textBuilder = new StringBuilder();
-        try (Reader reader = new BufferedReader(new InputStreamReader
-                (stream, Charset.forName(StandardCharsets.UTF_8.name())))) {
-            int c;
-            while ((c = reader.read()) != -1) {
-                textBuilder.append((char) c);
+        try (Reader reader = reader()) {
+            char[] buffer = new char[8192];
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                textBuilder.append(buffer, 0, count);
             }
         }
         return textBuilder.toString();
     }
 
+    /**
+     * Character stream over the response body
+     * <p>
+     * The body is decoded as it is read from the connection, so it can be handed straight to a JsonReader.
+     * The caller is responsible for closing the returned reader (or this Response).
+     */
+    public Reader reader() {
+        if (body != null) {
+            return body.charStream();
+        }
+        return new InputStreamReader(stream, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (body != null) {
+            body.close();
+            return;
+        }
+        stream.close();
+    }
+
     public static Response fetch(String path, String method, JsonObject payload, Map<String, Object> query) throws Exception {
-        String language = Check.language();
-        PublicUser user = new PublicUser(Settings.environment);
+        return fetch(path, method, payload, query, null, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Same as fetch, adding extra request headers and using the given client configuration.
+     * A 304 (Not Modified) answer to a conditional request is returned as is, for the caller to serve its cached copy.
+     * GET requests and requests with an Idempotency-Key header are retried as configured by client.retryPolicy.
+     * Every attempt first waits for a permit from client.limiter, if any, for up to client.limiterTimeoutMillis.
+     */
+    public static Response fetch(String path, String method, JsonObject payload, Map<String, Object> query,
+                                 Map<String, String> extraHeaders, StarkSignClient client) throws Exception {
+        Call<ResponseBody> call = prepare(path, method, payload, query, extraHeaders, client);
+        RetryPolicy retryPolicy = client.retryPolicy;
+        boolean idempotent = isIdempotent(method, extraHeaders);
+        retryPolicy.recordRequest();
+        for (int attempt = 1; ; attempt++) {
+            boolean canRetry = idempotent && attempt < retryPolicy.maxAttempts;
+            Response response;
+            try {
+                response = execute(call, client);
+            } catch (IOException e) {
+                if (!canRetry || !retryPolicy.acquireRetry()) {
+                    throw e;
+                }
+                Thread.sleep(retryPolicy.delayMillis(attempt, -1));
+                call = call.clone();
+                continue;
+            }
+            if (canRetry && retryPolicy.isRetryable(response.status) && retryPolicy.acquireRetry()) {
+                long delay = retryPolicy.delayMillis(attempt, response.retryAfterSeconds());
+                response.close();
+                Thread.sleep(delay);
+                call = call.clone();
+                continue;
+            }
+            return check(response);
+        }
+    }
+
+    /**
+     * Non-blocking version of fetch
+     * <p>
+     * The request is dispatched with Call.enqueue, so no thread is held while waiting for the API.
+     * The returned future completes on the HTTP dispatcher thread; chained stages that do heavy work should use
+     * one of the *Async variants with an executor of your own.
+     * Limiter permits are taken with Limiter.tryAcquire: while none is free, the attempt is re-checked later on the
+     * retry scheduler, for up to client.limiterTimeoutMillis, so no thread waits for a permit.
+     */
+    public static CompletableFuture<Response> fetchAsync(String path, String method, JsonObject payload, Map<String, Object> query) {
+        StarkSignClient client;
+        try {
+            client = StarkSignClient.fromSettings();
+        } catch (Exception e) {
+            CompletableFuture<Response> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return fetchAsync(path, method, payload, query, null, client);
+    }
+
+    public static CompletableFuture<Response> fetchAsync(String path, String method, JsonObject payload, Map<String, Object> query,
+                                                         Map<String, String> extraHeaders, StarkSignClient client) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Call<ResponseBody> call;
+        try {
+            call = prepare(path, method, payload, query, extraHeaders, client);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        client.retryPolicy.recordRequest();
+        enqueue(call, 1, isIdempotent(method, extraHeaders), client, future);
+        return future;
+    }
+
+    private static void enqueue(Call<ResponseBody> call, int attempt, boolean idempotent, StarkSignClient client,
+                                CompletableFuture<Response> future) {
+        if (client.limiter == null) {
+            send(call, attempt, idempotent, client, future, null);
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(client.limiterTimeoutMillis);
+        enqueueWithPermit(call, attempt, idempotent, client, future, deadline, 1);
+    }
+
+    /**
+     * Sends the attempt as soon as the limiter has a free permit, checking again after pollMillis (doubled on every
+     * check, up to maxPermitPollMillis) until the deadline passes
+     */
+    private static void enqueueWithPermit(Call<ResponseBody> call, int attempt, boolean idempotent, StarkSignClient client,
+                                          CompletableFuture<Response> future, long deadlineNanos, long pollMillis) {
+        Limiter.Permit permit;
+        try {
+            permit = client.limiter.tryAcquire();
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        if (permit != null) {
+            send(call, attempt, idempotent, client, future, permit);
+            return;
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMillis <= 0) {
+            future.completeExceptionally(rateLimitError(client));
+            return;
+        }
+        RetryScheduler.instance.schedule(
+            () -> enqueueWithPermit(call, attempt, idempotent, client, future, deadlineNanos,
+                Math.min(pollMillis * 2, maxPermitPollMillis)),
+            Math.min(pollMillis, remainingMillis),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    private static void send(Call<ResponseBody> call, int attempt, boolean idempotent, StarkSignClient client,
+                             CompletableFuture<Response> future, Limiter.Permit permit) {
+        RetryPolicy retryPolicy = client.retryPolicy;
+        boolean canRetry = idempotent && attempt < retryPolicy.maxAttempts;
+        long start = System.nanoTime();
+        call.enqueue(new Callback<ResponseBody>() {
+            @Override
+            public void onResponse(Call<ResponseBody> call, retrofit2.Response<ResponseBody> httpResponse) {
+                Response response = toResponse(httpResponse);
+                finish(client, call, permit, start, response.status, null);
+                if (canRetry && retryPolicy.isRetryable(response.status) && retryPolicy.acquireRetry()) {
+                    long delay = retryPolicy.delayMillis(attempt, response.retryAfterSeconds());
+                    closeQuietly(response);
+                    retryLater(call, attempt, delay, client, future);
+                    return;
+                }
+                try {
+                    future.complete(check(response));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ResponseBody> call, Throwable throwable) {
+                finish(client, call, permit, start, 0, throwable);
+                if (throwable instanceof IOException && !call.isCanceled() && canRetry && retryPolicy.acquireRetry()) {
+                    retryLater(call, attempt, retryPolicy.delayMillis(attempt, -1), client, future);
+                    return;
+                }
+                future.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    private static void retryLater(Call<ResponseBody> call, int attempt, long delayMillis, StarkSignClient client,
+                                   CompletableFuture<Response> future) {
+        Call<ResponseBody> retry = call.clone();
+        RetryScheduler.instance.schedule(
+            () -> enqueue(retry, attempt + 1, true, client, future),
+            delayMillis,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    private static Response execute(Call<ResponseBody> call, StarkSignClient client) throws Exception {
+        Limiter.Permit permit = acquirePermit(client);
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = toResponse(call.execute());
+        } catch (IOException | RuntimeException e) {
+            finish(client, call, permit, start, 0, e);
+            throw e;
+        }
+        finish(client, call, permit, start, response.status, null);
+        return response;
+    }
+
+    private static Limiter.Permit acquirePermit(StarkSignClient client) throws InterruptedException, RateLimitError {
+        if (client.limiter == null) {
+            return null;
+        }
+        Limiter.Permit permit = client.limiter.acquire(client.limiterTimeoutMillis);
+        if (permit == null) {
+            throw rateLimitError(client);
+        }
+        return permit;
+    }
+
+    private static RateLimitError rateLimitError(StarkSignClient client) {
+        return new RateLimitError("No request permit was available within " + client.limiterTimeoutMillis + " ms");
+    }
+
+    /**
+     * Releases the limiter permit and reports the attempt to the client's instrumentation.
+     * status is 0 and error is set if no response was received
+     */
+    private static void finish(StarkSignClient client, Call<ResponseBody> call, Limiter.Permit permit, long startNanos,
+                               int status, Throwable error) {
+        Instrumentation instrumentation = client.instrumentation;
+        if (permit == null && instrumentation == Instrumentation.NOOP) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        if (permit != null) {
+            permit.release(nanos, error == null ? isOverloaded(status) : error instanceof InterruptedIOException);
+        }
+        if (instrumentation != Instrumentation.NOOP) {
+            Request request = call.request();
+            instrumentation.onRequest(request.method(), request.url().encodedPath(), status, nanos, error);
+        }
+    }
+
+    private static boolean isOverloaded(int status) {
+        return status == 429 || status == 503;
+    }
+
+    private static boolean isIdempotent(String method, Map<String, String> extraHeaders) {
+        return method.equals("GET") || (extraHeaders != null && extraHeaders.containsKey("Idempotency-Key"));
+    }
 
+    private long retryAfterSeconds() {
+        String retryAfter = header("Retry-After");
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Single daemon thread that only re-enqueues delayed retries and re-checks limiters with tryAcquire, so waiting
+     * for a retry or a permit holds no thread. Nothing that runs on it may block.
+     */
+    private static final class RetryScheduler {
+        private static final ScheduledExecutorService instance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "starksign-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Call<ResponseBody> prepare(String path, String method, JsonObject payload, Map<String, Object> query,
+                                              Map<String, String> extraHeaders, StarkSignClient client) throws Exception {
         if (query != null) {
             path += Url.encode(query);
         }
@@ -59,67 +368,65 @@ public final class Response {
             body = payload.toString();
         }
 
-        Map<String, String> headers = new HashMap<>();
-        headers.put("User-Agent", getUserAgent());
-        headers.put("Content-Type", "application/json");
-        headers.put("Accept-Language", language);
+        Map<String, String> headers = baseHeaders(client.language);
+        if (extraHeaders != null && !extraHeaders.isEmpty()) {
+            headers = new HashMap<>(headers);
+            headers.putAll(extraHeaders);
+        }
 
-        Response response = executeMethod(user, path, method, body, headers);
+        return makeCall(client, path, method, body, headers);
+    }
+
+    private static Response check(Response response) throws Exception {
         if (response.status == 400) {
             throw new InputErrors(response.content());
         }
         if (response.status == 500) {
             throw new InternalServerError(response.content());
         }
-        if (response.status != 200) {
+        if (response.status != 200 && response.status != 304) {
             throw new UnknownError(response.content());
         }
         return response;
     }
 
-    private static Response executeMethod(PublicUser user, String path, String method, String body, Map<String, String> headers) throws Exception {
-        ClientService service = HttpClient.getProjectInstance(user);
-        retrofit2.Response<ResponseBody> response;
-        RequestBody requestBody = RequestBody.create(MediaType.parse("text/plain"), body);
+    private static Call<ResponseBody> makeCall(StarkSignClient client, String path, String method, String body, Map<String, String> headers) throws Exception {
+        Instrumentation tag = client.instrumentation == Instrumentation.NOOP ? null : client.instrumentation;
+        ClientService service = HttpClient.getProjectInstance(client);
         switch (method) {
             case "GET":
-                response = service.get(path, headers).execute();
-                break;
+                return service.get(path, headers, tag);
             case "POST":
-                response = service.post(path, requestBody, headers).execute();
-                break;
+                return service.post(path, RequestBody.create(textPlain, body), headers, tag);
             case "PATCH":
-                response = service.patch(path, requestBody, headers).execute();
-                break;
+                return service.patch(path, RequestBody.create(textPlain, body), headers, tag);
             case "PUT":
-                response = service.put(path, requestBody, headers).execute();
-                break;
+                return service.put(path, RequestBody.create(textPlain, body), headers, tag);
             case "DELETE":
-                response = service.delete(path, headers).execute();
-                break;
+                return service.delete(path, headers, tag);
             default:
                 throw new Exception("unknown HTTP method");
         }
+    }
 
+    private static Response toResponse(retrofit2.Response<ResponseBody> response) {
         int status = response.code();
-
-        InputStream contentStream;
-        if (status == 200) {
-            try (ResponseBody responseBody = response.body()) {
-                assert responseBody != null;
-                contentStream = responseBody.byteStream();
-            }
-        } else {
-            try (ResponseBody responseBody = response.errorBody()) {
-                assert responseBody != null;
-                contentStream = responseBody.byteStream();
-            }
-        }
-
-        return new Response(status, contentStream);
+        ResponseBody responseBody = status == 200 ? response.body() : response.errorBody();
+        assert responseBody != null;
+        return new Response(status, responseBody, response.headers());
     }
 
-    private static String getUserAgent() {
-        return "Java-" + System.getProperty("java.version") + "-SDK-Sign-0.0.1";
+    private static Map<String, String> baseHeaders(String language) {
+        Map<String, String> headers = baseHeaders.get(language);
+        if (headers != null) {
+            return headers;
+        }
+        return baseHeaders.computeIfAbsent(language, key -> {
+            Map<String, String> map = new HashMap<>();
+            map.put("User-Agent", userAgent);
+            map.put("Content-Type", "application/json");
+            map.put("Accept-Language", key);
+            return Collections.unmodifiableMap(map);
+        });
     }
 }
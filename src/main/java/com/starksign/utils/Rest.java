@@ -1,29 +1,262 @@
 package com.starksign.utils;
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.starksign.Instrumentation;
+import com.starksign.StarkSignClient;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
 
 
 public final class Rest {
+    private static final SingleFlight<FlightKey, Object> gets = new SingleFlight<>();
+
     public static <T extends Resource> T getId(Resource.ClassData resource, String id, Map<String, Object> query) throws Exception {
-        String content = Response.fetch(Api.endpoint(resource, id), "GET", null, query).content();
-        Gson gson = GsonEvent.getInstance();
-        JsonObject contentJson = gson.fromJson(content, JsonObject.class);
-        JsonObject jsonObject = contentJson.get(Api.getLastName(resource)).getAsJsonObject();
-        return gson.fromJson(jsonObject, (Type) resource.cls);
+        return getId(resource, id, query, null, StarkSignClient.fromSettings());
+    }
+
+    /**
+     * Same as getId, using the given client and served from or revalidated against a ResourceCache.
+     * A null cache disables caching.
+     * <p>
+     * Concurrent requests for the same resource made with the same client and cache, synchronous or not, are
+     * coalesced into a single HTTP call, and all of their callers receive the same object. That object may also be
+     * held by the cache, so callers that hand it out must return a copy.
+     */
+    public static <T extends Resource> T getId(Resource.ClassData resource, String id, Map<String, Object> query,
+                                               ResourceCache cache, StarkSignClient client) throws Exception {
+        return getId(resource, id, query, cache, client, UnaryOperator.identity());
+    }
+
+    /**
+     * Same as getId, applying prepare to every newly parsed resource before it is cached or handed to any caller,
+     * so it can be normalized while still unshared
+     */
+    public static <T extends Resource> T getId(Resource.ClassData resource, String id, Map<String, Object> query,
+                                               ResourceCache cache, StarkSignClient client, UnaryOperator<T> prepare) throws Exception {
+        String path = Api.endpoint(resource, id);
+        String key = requestKey(path, query);
+        ResourceCache.Entry entry = cache == null ? null : cache.get(key);
+        if (entry != null && entry.isFresh()) {
+            return cast(entry.resource);
+        }
+        return cast(gets.run(new FlightKey(client, cache, key), () -> {
+            Response response = Response.fetch(path, "GET", null, query, conditionalHeaders(entry), client);
+            return readEntity(resource, key, entry, cache, response, client.instrumentation, prepare);
+        }));
+    }
+
+    public static <T extends Resource> CompletableFuture<T> getIdAsync(Resource.ClassData resource, String id, Map<String, Object> query) {
+        StarkSignClient client;
+        try {
+            client = StarkSignClient.fromSettings();
+        } catch (Exception e) {
+            return failed(e);
+        }
+        return getIdAsync(resource, id, query, null, client);
+    }
+
+    public static <T extends Resource> CompletableFuture<T> getIdAsync(Resource.ClassData resource, String id, Map<String, Object> query,
+                                                                      ResourceCache cache, StarkSignClient client) {
+        return getIdAsync(resource, id, query, cache, client, UnaryOperator.identity());
+    }
+
+    public static <T extends Resource> CompletableFuture<T> getIdAsync(Resource.ClassData resource, String id, Map<String, Object> query,
+                                                                      ResourceCache cache, StarkSignClient client, UnaryOperator<T> prepare) {
+        String path = Api.endpoint(resource, id);
+        String key;
+        try {
+            key = requestKey(path, query);
+        } catch (UnsupportedEncodingException e) {
+            return failed(e);
+        }
+        ResourceCache.Entry entry = cache == null ? null : cache.get(key);
+        if (entry != null && entry.isFresh()) {
+            return CompletableFuture.completedFuture(cast(entry.resource));
+        }
+        return gets.runAsync(new FlightKey(client, cache, key), () ->
+            Response.fetchAsync(path, "GET", null, query, conditionalHeaders(entry), client)
+                .thenApply(response -> {
+                    try {
+                        return readEntity(resource, key, entry, cache, response, client.instrumentation, prepare);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                })
+        ).thenApply(entity -> Rest.<T>cast(entity));
     }
 
     public static <T extends SubResource> T postSubResource(Resource.ClassData resource, String id, SubResource.ClassData subResource, SubResource entity) throws Exception {
-        JsonObject payload = (JsonObject) new Gson().toJsonTree((entity));
-        String content = Response.fetch(
+        return postSubResource(resource, id, subResource, entity, StarkSignClient.fromSettings());
+    }
+
+    public static <T extends SubResource> T postSubResource(Resource.ClassData resource, String id, SubResource.ClassData subResource,
+                                                            SubResource entity, StarkSignClient client) throws Exception {
+        JsonObject payload = (JsonObject) GsonEvent.getInstance().toJsonTree(entity);
+        Response response = Response.fetch(
             Api.endpoint(resource, id) + Api.endpoint(subResource),
             "POST",
             payload,
-            new HashMap<>()
-        ).content();
-        JsonObject contentJson = new Gson().fromJson(content, JsonObject.class);
-        JsonObject jsonObject = contentJson.get(Api.getLastName(subResource)).getAsJsonObject();
-        return GsonEvent.getInstance().fromJson(jsonObject, (Type) subResource.cls);
+            new HashMap<>(),
+            idempotencyHeaders(),
+            client
+        );
+        return parseEntity(subResource, response, client.instrumentation);
+    }
+
+    public static <T extends SubResource> CompletableFuture<T> postSubResourceAsync(Resource.ClassData resource, String id, SubResource.ClassData subResource, SubResource entity) {
+        StarkSignClient client;
+        try {
+            client = StarkSignClient.fromSettings();
+        } catch (Exception e) {
+            return failed(e);
+        }
+        return postSubResourceAsync(resource, id, subResource, entity, client);
+    }
+
+    public static <T extends SubResource> CompletableFuture<T> postSubResourceAsync(Resource.ClassData resource, String id, SubResource.ClassData subResource,
+                                                                                   SubResource entity, StarkSignClient client) {
+        JsonObject payload = (JsonObject) GsonEvent.getInstance().toJsonTree(entity);
+        return Response.fetchAsync(
+            Api.endpoint(resource, id) + Api.endpoint(subResource),
+            "POST",
+            payload,
+            new HashMap<>(),
+            idempotencyHeaders(),
+            client
+        ).thenApply(response -> {
+            try {
+                return parseEntity(subResource, response, client.instrumentation);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static <T> CompletableFuture<T> failed(Exception e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    private static String requestKey(String path, Map<String, Object> query) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return path;
+        }
+        return path + Url.encode(query);
+    }
+
+    /**
+     * Headers for a POST that may be retried: the key is generated once per call and reused by every retry,
+     * so the API applies the request only once.
+     */
+    private static Map<String, String> idempotencyHeaders() {
+        return Collections.singletonMap("Idempotency-Key", UUID.randomUUID().toString());
+    }
+
+    private static Map<String, String> conditionalHeaders(ResourceCache.Entry entry) {
+        if (entry == null || entry.etag == null) {
+            return null;
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("If-None-Match", entry.etag);
+        return headers;
+    }
+
+    private static <T extends SubResource> Object readEntity(SubResource.ClassData resource, String key,
+                                                             ResourceCache.Entry entry, ResourceCache cache, Response response,
+                                                             Instrumentation instrumentation, UnaryOperator<T> prepare) throws IOException {
+        if (response.status == 304 && entry != null) {
+            response.close();
+            cache.revalidated(key, entry);
+            return entry.resource;
+        }
+        T parsed = prepare.apply(parseEntity(resource, response, instrumentation));
+        if (cache != null) {
+            cache.put(key, parsed, response.header("ETag"));
+        }
+        return parsed;
+    }
+
+    private static <T extends SubResource> T parseEntity(SubResource.ClassData resource, Response response,
+                                                         Instrumentation instrumentation) throws IOException {
+        if (instrumentation == Instrumentation.NOOP) {
+            return bindEntity(resource, response);
+        }
+        long start = System.nanoTime();
+        T entity = bindEntity(resource, response);
+        instrumentation.onParse(resource.name, System.nanoTime() - start);
+        return entity;
+    }
+
+    /**
+     * Bind the envelope field of a response (ex: "document" in {"document": {...}}) straight from the response stream.
+     * Sibling fields are skipped without being materialized, and no intermediate String or JsonObject is built.
+     */
+    static <T extends SubResource> T bindEntity(SubResource.ClassData resource, Response response) throws IOException {
+        try (JsonReader reader = new JsonReader(response.reader())) {
+            return readEnvelope(resource, reader);
+        }
+    }
+
+    static <T extends SubResource> T readEnvelope(SubResource.ClassData resource, JsonReader reader) throws IOException {
+        String envelope = Api.getLastName(resource);
+        TypeAdapter<?> adapter = GsonEvent.getInstance().getAdapter(resource.cls);
+        Object entity = null;
+        boolean found = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!found && name.equals(envelope)) {
+                entity = adapter.read(reader);
+                found = true;
+                continue;
+            }
+            reader.skipValue();
+        }
+        reader.endObject();
+        if (!found) {
+            throw new JsonParseException("Missing \"" + envelope + "\" field in response");
+        }
+        return cast(entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object entity) {
+        return (T) entity;
+    }
+
+    /**
+     * Identifies a coalesced GET: requests are only merged if they share the client, which holds the API address
+     * and request settings, and the cache the result is stored in
+     */
+    private static final class FlightKey {
+        private final StarkSignClient client;
+        private final ResourceCache cache;
+        private final String path;
+
+        private FlightKey(StarkSignClient client, ResourceCache cache, String path) {
+            this.client = client;
+            this.cache = cache;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey key = (FlightKey) other;
+            return client == key.client && cache == key.cache && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(client) + System.identityHashCode(cache)) + path.hashCode();
+        }
     }
 }
@@ -0,0 +1,92 @@
+package com.starksign.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+public class SignatureCache {
+    /**
+     * SignatureCache object
+     * <p>
+     * Bounded cache of content and signature pairs that verified against a given set of public keys. Entries are
+     * keyed by the full SHA-256 digest of the content, the exact signature and the identity of the key set, so a hit
+     * needs all three to match. Entries expire after ttlSeconds and the least recently used ones are evicted beyond
+     * maxEntries.
+     * <p>
+     * Parameters:
+     * maxEntries [int]: maximum number of accepted signatures remembered. ex: 10000
+     * ttlSeconds [long]: time an accepted signature is remembered. ex: 300
+     */
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public SignatureCache(int maxEntries, long ttlSeconds) {
+        if (maxEntries < 1 || ttlSeconds < 0) {
+            throw new IllegalArgumentException("maxEntries must be positive and ttlSeconds must be non-negative");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Whether the pair was accepted against the same set of public keys less than ttlSeconds ago
+     */
+    synchronized boolean contains(byte[] hash, String signature, Object publicKeys) {
+        Key key = new Key(hash, signature, publicKeys);
+        Long storedAt = entries.get(key);
+        if (storedAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - storedAt >= ttlNanos) {
+            entries.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void put(byte[] hash, String signature, Object publicKeys) {
+        entries.put(new Key(hash, signature, publicKeys), System.nanoTime());
+        if (entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    private static final class Key {
+        private final byte[] hash;
+        private final String signature;
+        private final Object publicKeys;
+        private final int hashCode;
+
+        private Key(byte[] hash, String signature, Object publicKeys) {
+            this.hash = hash;
+            this.signature = signature;
+            this.publicKeys = publicKeys;
+            this.hashCode = 31 * (31 * Arrays.hashCode(hash) + signature.hashCode()) + System.identityHashCode(publicKeys);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return publicKeys == key.publicKeys && Arrays.equals(hash, key.hash) && signature.equals(key.signature);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.starksign.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * Collapses concurrent calls for the same key into a single execution.
+ * The first caller runs the work (synchronously on its own thread, or by starting an asynchronous task);
+ * every caller that arrives while it is running waits for, and receives, the same result or error.
+ * Synchronous and asynchronous calls for the same key join each other.
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    V run(K key, Callable<V> callable) throws Exception {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            V value = callable.call();
+            call.complete(value);
+            return value;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    CompletableFuture<V> runAsync(K key, Supplier<CompletableFuture<V>> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, call);
+        if (running != null) {
+            return running.thenApply(Function.identity());
+        }
+        CompletableFuture<V> result;
+        try {
+            result = supplier.get();
+        } catch (Throwable e) {
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((value, error) -> {
+            calls.remove(key, call);
+            if (error != null) {
+                call.completeExceptionally(error);
+                return;
+            }
+            call.complete(value);
+        });
+        return call.thenApply(Function.identity());
+    }
+
+    private static <V> V await(CompletableFuture<V> call) throws Exception {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.starksign.utils;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+
+public class StringStore {
+    /**
+     * StringStore object
+     * <p>
+     * Keeps a single copy of each distinct String, identified by the SHA-256 digest of its UTF-8 encoding, along
+     * with that digest. When the stored Strings add up to more than maxContentLength characters, the least recently
+     * used ones are forgotten.
+     * <p>
+     * Parameters:
+     * maxContentLength [long]: maximum number of characters held by the store. ex: 50000000
+     */
+    private final long maxContentLength;
+    private final LinkedHashMap<Digest, Entry> byDigest = new LinkedHashMap<>(16, 0.75f, true);
+    private final IdentityHashMap<String, Entry> byContent = new IdentityHashMap<>();
+    private long contentLength = 0;
+
+    public StringStore(long maxContentLength) {
+        if (maxContentLength < 1) {
+            throw new IllegalArgumentException("maxContentLength must be positive");
+        }
+        this.maxContentLength = maxContentLength;
+    }
+
+    /**
+     * Stored copy of content, storing content itself if no equal content is stored yet
+     * <p>
+     * Parameters:
+     * @param content [string]: content to deduplicate. ex: document.content
+     * <p>
+     * Return:
+     * @return the stored String equal to content, or null if content is null
+     */
+    public String intern(String content) {
+        if (content == null) {
+            return null;
+        }
+        return entry(content).content;
+    }
+
+    public synchronized void clear() {
+        byDigest.clear();
+        byContent.clear();
+        contentLength = 0;
+    }
+
+    public synchronized int size() {
+        return byDigest.size();
+    }
+
+    /**
+     * SHA-256 digest of the UTF-8 content if this very String is stored, null otherwise.
+     * Nothing is hashed or stored. The returned array is shared and must not be modified.
+     */
+    synchronized byte[] digestIfPresent(String content) {
+        Entry entry = byContent.get(content);
+        if (entry == null) {
+            return null;
+        }
+        byDigest.get(entry.digest);
+        return entry.digest.bytes;
+    }
+
+    private Entry entry(String content) {
+        synchronized (this) {
+            Entry entry = byContent.get(content);
+            if (entry != null) {
+                byDigest.get(entry.digest);
+                return entry;
+            }
+        }
+        Digest digest = new Digest(Hash.sha256(content));
+        synchronized (this) {
+            Entry entry = byDigest.get(digest);
+            if (entry != null) {
+                return entry;
+            }
+            entry = new Entry(content, digest);
+            byDigest.put(digest, entry);
+            byContent.put(content, entry);
+            contentLength += content.length();
+            evict();
+            return entry;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = byDigest.values().iterator();
+        while (contentLength > maxContentLength && byDigest.size() > 1 && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            byContent.remove(entry.content);
+            contentLength -= entry.content.length();
+        }
+    }
+
+    private static final class Entry {
+        private final String content;
+        private final Digest digest;
+
+        private Entry(String content, Digest digest) {
+            this.content = content;
+            this.digest = digest;
+        }
+    }
+
+    private static final class Digest {
+        private final byte[] bytes;
+        private final int hashCode;
+
+        private Digest(byte[] bytes) {
+            this.bytes = bytes;
+            this.hashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Digest && Arrays.equals(bytes, ((Digest) other).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -1,23 +1,25 @@
 package com.starksign.utils;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
 
 public abstract class SubResource {
     protected static class ClassData {
         public String name;
         public Class<?> cls;
+        final String endpoint;
+        final String lastName;
+        final String lastNamePlural;
 
         public ClassData(Class<?> cls, String name){
             this.cls = cls;
             this.name = name;
+            this.endpoint = Api.endpoint(name);
+            this.lastName = Api.getLastName(name);
+            this.lastNamePlural = Api.getLastNamePlural(name);
         }
     }
 
     public String toString() {
         String name = this.getClass().getSimpleName();
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        return name + "(" + gson.toJson(this) + ")";
+        return name + "(" + GsonEvent.getPrettyInstance().toJson(this) + ")";
     }
 }
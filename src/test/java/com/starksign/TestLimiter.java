@@ -0,0 +1,112 @@
+package com.starksign;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+public class TestLimiter {
+
+    @Test
+    public void testTokenBucketBurst() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNotNull(limiter.tryAcquire());
+        }
+        Assert.assertNull(limiter.tryAcquire());
+        Assert.assertNull(limiter.acquire(100));
+    }
+
+    @Test
+    public void testTokenBucketRefill() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(20, 1);
+
+        Assert.assertNotNull(limiter.tryAcquire());
+        Assert.assertNull(limiter.tryAcquire());
+        long start = System.nanoTime();
+        Assert.assertNotNull(limiter.acquire(1000));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+
+        Thread.sleep(60);
+        Assert.assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testAimdTryAcquire() {
+        AimdLimiter limiter = AimdLimiter.builder().initialLimit(2).build();
+
+        Limiter.Permit first = limiter.tryAcquire();
+        Limiter.Permit second = limiter.tryAcquire();
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(second);
+        Assert.assertNull(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.inFlight());
+
+        second.cancel();
+        Assert.assertEquals(1, limiter.inFlight());
+        Assert.assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testAimdLimitAdapts() {
+        AimdLimiter limiter = AimdLimiter.builder().initialLimit(10).minLimit(2).backoffRatio(0.5).build();
+
+        limiter.tryAcquire().release(0, true);
+        Assert.assertEquals(5, limiter.limit());
+        limiter.tryAcquire().release(TimeUnit.MILLISECONDS.toNanos(limiter.latencyThresholdMillis + 1), false);
+        Assert.assertEquals(2, limiter.limit());
+        limiter.tryAcquire().release(0, true);
+        Assert.assertEquals(2, limiter.limit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().release(0, false);
+        }
+        Assert.assertEquals(4, limiter.limit());
+        Assert.assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    public void testAimdAcquireWaitsForRelease() throws Exception {
+        AimdLimiter limiter = AimdLimiter.builder().initialLimit(1).build();
+        Limiter.Permit permit = limiter.tryAcquire();
+
+        CompletableFuture<Limiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        Assert.assertFalse(waiting.isDone());
+        permit.cancel();
+
+        Assert.assertNotNull(waiting.get(1, TimeUnit.SECONDS));
+        Assert.assertNull(limiter.acquire(10));
+    }
+
+    @Test
+    public void testAllCancelsTakenPermits() throws Exception {
+        AimdLimiter first = AimdLimiter.builder().initialLimit(1).build();
+        AimdLimiter second = AimdLimiter.builder().initialLimit(1).build();
+        Limiter limiter = Limiter.all(first, second);
+        Limiter.Permit held = second.tryAcquire();
+
+        Assert.assertNull(limiter.tryAcquire());
+        Assert.assertNull(limiter.acquire(10));
+        Assert.assertEquals(0, first.inFlight());
+
+        held.cancel();
+        Limiter.Permit permit = limiter.tryAcquire();
+        Assert.assertNotNull(permit);
+        Assert.assertEquals(1, first.inFlight());
+        Assert.assertEquals(1, second.inFlight());
+
+        permit.release(0, false);
+        Assert.assertEquals(0, first.inFlight());
+        Assert.assertEquals(0, second.inFlight());
+    }
+}
@@ -0,0 +1,69 @@
+package com.starksign;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TestRetryPolicy {
+
+    @Test
+    public void testJitteredDelay() {
+        RetryPolicy policy = RetryPolicy.builder().baseDelayMillis(100).maxDelayMillis(1000).build();
+
+        for (int i = 0; i < 1000; i++) {
+            long first = policy.delayMillis(1, -1);
+            long third = policy.delayMillis(3, -1);
+            long tenth = policy.delayMillis(10, -1);
+            Assert.assertTrue(first >= 0 && first <= 100);
+            Assert.assertTrue(third >= 0 && third <= 400);
+            Assert.assertTrue(tenth >= 0 && tenth <= 1000);
+        }
+    }
+
+    @Test
+    public void testRetryAfter() {
+        RetryPolicy policy = RetryPolicy.builder().maxDelayMillis(5000).build();
+
+        Assert.assertEquals(2000, policy.delayMillis(1, 2));
+        Assert.assertEquals(0, policy.delayMillis(1, 0));
+        Assert.assertEquals(5000, policy.delayMillis(1, 60));
+    }
+
+    @Test
+    public void testBudget() {
+        RetryPolicy policy = RetryPolicy.builder().retryBudgetRatio(0.5).maxRetryBudget(2).build();
+
+        Assert.assertTrue(policy.acquireRetry());
+        Assert.assertTrue(policy.acquireRetry());
+        Assert.assertFalse(policy.acquireRetry());
+
+        policy.recordRequest();
+        Assert.assertFalse(policy.acquireRetry());
+        policy.recordRequest();
+        Assert.assertTrue(policy.acquireRetry());
+        Assert.assertFalse(policy.acquireRetry());
+
+        for (int i = 0; i < 100; i++) {
+            policy.recordRequest();
+        }
+        Assert.assertTrue(policy.acquireRetry());
+        Assert.assertTrue(policy.acquireRetry());
+        Assert.assertFalse(policy.acquireRetry());
+    }
+
+    @Test
+    public void testRetryableStatus() {
+        for (int status : new int[]{429, 500, 502, 503, 504}) {
+            Assert.assertTrue(RetryPolicy.DEFAULT.isRetryable(status));
+        }
+        for (int status : new int[]{200, 304, 400, 401, 404, 501}) {
+            Assert.assertFalse(RetryPolicy.DEFAULT.isRetryable(status));
+        }
+    }
+
+    @Test
+    public void testNullMeansDefault() throws Exception {
+        StarkSignClient client = StarkSignClient.builder().environment("sandbox").retryPolicy(null).build();
+        Assert.assertTrue(client.retryPolicy == RetryPolicy.DEFAULT);
+    }
+}
@@ -0,0 +1,125 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.Document;
+import com.starksign.HttpConfig;
+import com.starksign.SignatureRequest;
+import com.starksign.StarkSignClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Load test of the SDK against MockStarkSign
+ * <p>
+ * Runs Document.get, Document.sign and SignatureRequest.parse at several concurrency levels and prints throughput
+ * and latency percentiles for each. Run it with "./gradlew loadTest", optionally passing
+ * -Dstarksign.load.requests, -Dstarksign.load.latencyMillis, -Dstarksign.load.errorRate and
+ * -Dstarksign.load.contentSize.
+ */
+public final class LoadDriver {
+
+    private static final int[] concurrencyLevels = {1, 4, 16, 64};
+
+    private interface Operation {
+        void run(int index) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = Integer.getInteger("starksign.load.requests", 2000);
+        long latencyMillis = Long.getLong("starksign.load.latencyMillis", 10);
+        double errorRate = Double.parseDouble(System.getProperty("starksign.load.errorRate", "0.01"));
+        int contentSize = Integer.getInteger("starksign.load.contentSize", 16384);
+
+        try (MockStarkSign mock = new MockStarkSign(requests, contentSize)) {
+            List<String> ids = mock.documentIds();
+            List<String> privateKeys = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                privateKeys.add(new PrivateKey().toPem());
+            }
+            List<MockStarkSign.SignedPayload> payloads = new ArrayList<>();
+            for (String id : ids) {
+                payloads.add(mock.signatureRequest(id));
+            }
+            mock.latencyMillis(latencyMillis);
+            mock.errorRate(errorRate);
+
+            System.out.printf("%d requests per run, %d ms server latency, %.1f%% injected errors, %d characters of content%n",
+                requests, latencyMillis, errorRate * 100, contentSize);
+            System.out.printf("%-24s %11s %10s %9s %9s %9s %9s %7s%n",
+                "operation", "concurrency", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+
+            for (int concurrency : concurrencyLevels) {
+                StarkSignClient client = StarkSignClient.builder()
+                    .environment("sandbox")
+                    .baseUrl(mock.baseUrl())
+                    .httpConfig(HttpConfig.builder()
+                        .maxIdleConnections(concurrency)
+                        .maxRequests(Math.max(64, concurrency))
+                        .maxRequestsPerHost(concurrency)
+                        .build())
+                    .build();
+
+                run("Document.get", concurrency, requests, index -> Document.get(ids.get(index), client));
+                run("Document.sign", concurrency, requests, index -> {
+                    HashMap<String, Object> params = new HashMap<>();
+                    params.put("id", ids.get(index));
+                    params.put("content", mock.content(ids.get(index)));
+                    params.put("signerId", "6785678567856785");
+                    params.put("privateKey", privateKeys.get(index % privateKeys.size()));
+                    Document.sign(params, client);
+                });
+                run("SignatureRequest.parse", concurrency, requests, index -> {
+                    MockStarkSign.SignedPayload payload = payloads.get(index);
+                    SignatureRequest.parse(payload.content, payload.signature, client);
+                });
+            }
+        }
+    }
+
+    private static void run(String name, int concurrency, int requests, Operation operation) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(executor.submit(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < requests) {
+                    long operationStart = System.nanoTime();
+                    try {
+                        operation.run(index);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - operationStart;
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-24s %11d %10.1f %9.2f %9.2f %9.2f %9.2f %7d%n",
+            name, concurrency, requests * 1e9 / elapsed,
+            percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+            latencies[latencies.length - 1] / 1e6, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,339 @@
+package com.starksign.mock;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Local stand-in for the Stark Sign API, for offline tests and load tests.
+ * <p>
+ * Serves GET /document/{id} (honoring the "fields" query), POST /document/{id}/signature and GET /public-key on a
+ * MockWebServer.
+ * Payloads given to the SDK's parse methods are signed with a real ECDSA key whose public key is served at /public-key.
+ * The key can be rotated, after which the previous public keys keep being served after the new one.
+ * Documents carry an ETag and are answered with 304 when it matches If-None-Match.
+ * Document envelopes can be padded with unknown fields, as a newer API version would send them.
+ * Signatures are stored by Idempotency-Key, so a retried signature is only registered once.
+ * Latency and the share of 503 answers can be changed while the server is running, and the next few requests can be
+ * set to fail. Failures are injected after the request is processed, as when an answer is lost on its way back.
+ */
+public final class MockStarkSign implements Closeable {
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<String> starkPublicKeys = new CopyOnWriteArrayList<>();
+    private volatile PrivateKey starkKey;
+    private final ConcurrentHashMap<String, String> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> signatures = new ConcurrentHashMap<>();
+    private final AtomicInteger registeredSignatures = new AtomicInteger();
+    private final AtomicInteger documentRequests = new AtomicInteger();
+    private final AtomicInteger publicKeyRequests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile boolean envelopeExtras;
+
+    /**
+     * Starts a server holding documentCount documents with about contentSize characters of HTML each
+     */
+    public MockStarkSign(int documentCount, int contentSize) throws IOException {
+        StringBuilder content = new StringBuilder("<meta charset='utf-8'><page size='A4'>");
+        while (content.length() < contentSize) {
+            content.append("<p>Contrato de presta\u00e7\u00e3o de servi\u00e7os entre as partes abaixo assinadas.</p>");
+        }
+        content.append("</page>");
+        rotateKey();
+        for (int i = 0; i < documentCount; i++) {
+            documents.put(Long.toString(5155165527080960L + i), content.toString());
+        }
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return answer(request);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Address to give to StarkSignClient.builder().baseUrl()
+     */
+    public String baseUrl() {
+        return server.url("/").toString();
+    }
+
+    public List<String> documentIds() {
+        List<String> ids = new ArrayList<>(documents.keySet());
+        Collections.sort(ids);
+        return ids;
+    }
+
+    public String content(String documentId) {
+        return documents.get(documentId);
+    }
+
+    /**
+     * Time waited before answering each request
+     */
+    public void latencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Share of requests answered with 503, between 0 and 1
+     */
+    public void errorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Answers the next count requests with 503, whatever the errorRate
+     */
+    public void failNext(int count) {
+        failuresLeft.set(count);
+    }
+
+    /**
+     * If true, document responses carry unknown fields around the "document" envelope, including a nested object
+     * with a "document" key of its own
+     */
+    public void envelopeExtras(boolean envelopeExtras) {
+        this.envelopeExtras = envelopeExtras;
+    }
+
+    /**
+     * Number of distinct signatures registered, not counting retries
+     */
+    public int registeredSignatures() {
+        return registeredSignatures.get();
+    }
+
+    /**
+     * Number of GET /document/{id} requests received, including the ones answered with 304
+     */
+    public int documentRequests() {
+        return documentRequests.get();
+    }
+
+    /**
+     * Number of GET /public-key requests received
+     */
+    public int publicKeyRequests() {
+        return publicKeyRequests.get();
+    }
+
+    /**
+     * Number of GET /document/{id} requests answered with 304
+     */
+    public int notModified() {
+        return notModified.get();
+    }
+
+    /**
+     * Next request received, in arrival order, with its path and headers
+     */
+    public RecordedRequest takeRequest() throws InterruptedException {
+        return server.takeRequest();
+    }
+
+    /**
+     * Highest number of requests being answered at the same time, including their latency
+     */
+    public int maxConcurrentRequests() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Starts signing payloads with a new key. The new public key is served first at /public-key, followed by the
+     * previous ones, as during a key rotation
+     */
+    public void rotateKey() {
+        PrivateKey key = new PrivateKey();
+        starkPublicKeys.add(0, key.publicKey().toPem());
+        starkKey = key;
+    }
+
+    /**
+     * SignatureRequest content and Digital-Signature header, as received by a server signer's endpoint
+     */
+    public SignedPayload signatureRequest(String documentId) {
+        return signatureRequest(documentId, "6785678567856785");
+    }
+
+    /**
+     * Same as signatureRequest(documentId), with the given signerId
+     */
+    public SignedPayload signatureRequest(String documentId, String signerId) {
+        JsonObject request = new JsonObject();
+        request.addProperty("documentId", documentId);
+        request.addProperty("signerId", signerId);
+        request.addProperty("privateKey", new PrivateKey().toPem());
+        String content = request.toString();
+        return new SignedPayload(content, Ecdsa.sign(content, starkKey).toBase64());
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse answer(RecordedRequest request) throws InterruptedException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            long latency = latencyMillis;
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            MockResponse response = route(request);
+            if (failuresLeft.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+                return error(503, "serviceUnavailable", "Injected failure");
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return error(503, "serviceUnavailable", "Injected failure");
+            }
+            return response;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private MockResponse route(RecordedRequest request) {
+        String path = request.getPath();
+        int query = path.indexOf('?');
+        String[] parts = (query < 0 ? path : path.substring(0, query)).split("/");
+        // parts: "", "v2", resource, id, subresource
+        if (parts.length == 3 && parts[2].equals("public-key") && request.getMethod().equals("GET")) {
+            publicKeyRequests.incrementAndGet();
+            return publicKeys(request.getRequestUrl().queryParameter("limit"));
+        }
+        if (parts.length >= 4 && parts[2].equals("document")) {
+            String content = documents.get(parts[3]);
+            if (content == null) {
+                return error(400, "invalidDocumentId", "Document not found");
+            }
+            if (parts.length == 4 && request.getMethod().equals("GET")) {
+                documentRequests.incrementAndGet();
+                return document(parts[3], content, request.getRequestUrl().queryParameter("fields"),
+                    request.getHeader("If-None-Match"));
+            }
+            if (parts.length == 5 && parts[4].equals("signature") && request.getMethod().equals("POST")) {
+                return signature(request);
+            }
+        }
+        return error(400, "invalidPath", "Unknown path: " + request.getMethod() + " " + path);
+    }
+
+    private MockResponse publicKeys(String limit) {
+        JsonArray publicKeys = new JsonArray();
+        for (String content : starkPublicKeys) {
+            if (limit != null && publicKeys.size() >= Integer.parseInt(limit)) {
+                break;
+            }
+            JsonObject publicKey = new JsonObject();
+            publicKey.addProperty("content", content);
+            publicKeys.add(publicKey);
+        }
+        JsonObject body = new JsonObject();
+        body.add("publicKeys", publicKeys);
+        return ok(body);
+    }
+
+    private MockResponse document(String id, String content, String fields, String ifNoneMatch) {
+        String etag = "\"" + id + "-" + content.length() + "-" + fields + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            notModified.incrementAndGet();
+            return new MockResponse().setResponseCode(304).setHeader("ETag", etag);
+        }
+        JsonObject document = new JsonObject();
+        document.addProperty("id", id);
+        document.addProperty("content", content);
+        document.addProperty("status", "pending");
+        document.add("signers", new JsonArray());
+        document.add("signatures", new JsonArray());
+        if (fields != null) {
+            List<String> requested = Arrays.asList(fields.split(","));
+            document.keySet().removeIf(field -> !field.equals("id") && !requested.contains(field));
+        }
+        JsonObject body = new JsonObject();
+        if (envelopeExtras) {
+            JsonObject meta = new JsonObject();
+            meta.add("document", new JsonObject());
+            meta.add("tags", JsonParser.parseString("[1, [\"a\", {\"b\": null}], true]"));
+            body.add("meta", meta);
+        }
+        body.add("document", document);
+        if (envelopeExtras) {
+            body.addProperty("cursor", "");
+            body.add("links", new JsonArray());
+        }
+        return ok(body).setHeader("ETag", etag);
+    }
+
+    private MockResponse signature(RecordedRequest request) {
+        String idempotencyKey = request.getHeader("Idempotency-Key");
+        String payload = request.getBody().readUtf8();
+        String body = idempotencyKey == null ? signatureBody(payload) : signatures.computeIfAbsent(
+            idempotencyKey, key -> signatureBody(payload)
+        );
+        return new MockResponse().setResponseCode(200).setBody(body);
+    }
+
+    private String signatureBody(String payload) {
+        registeredSignatures.incrementAndGet();
+        JsonObject signature = new JsonObject();
+        signature.addProperty("signerId", "6785678567856785");
+        signature.addProperty("name", "Edward Stark");
+        signature.addProperty("contact", "edward@starksign.com");
+        signature.add("signature", JsonParser.parseString(payload).getAsJsonObject().get("signature"));
+        signature.addProperty("ip", "127.0.0.1");
+        signature.addProperty("created", "2022-09-07T18:00:00.000000+00:00");
+        JsonObject body = new JsonObject();
+        body.add("signature", signature);
+        return body.toString();
+    }
+
+    private static MockResponse ok(JsonObject body) {
+        return new MockResponse().setResponseCode(200).setBody(body.toString());
+    }
+
+    private static MockResponse error(int status, String code, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        JsonArray errors = new JsonArray();
+        errors.add(error);
+        JsonObject body = new JsonObject();
+        body.add("errors", errors);
+        return new MockResponse().setResponseCode(status).setBody(body.toString());
+    }
+
+    public static final class SignedPayload {
+        public final String content;
+        public final String signature;
+
+        private SignedPayload(String content, String signature) {
+            this.content = content;
+            this.signature = signature;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.Document;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
+import com.starksign.error.InputErrors;
+import com.starksign.error.UnknownError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+
+public class TestDocumentAsync {
+
+    @Test
+    public void testGetAsyncDoesNotBlock() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.latencyMillis(300);
+            String documentId = mock.documentIds().get(0);
+
+            long start = System.nanoTime();
+            CompletableFuture<Document> future = Document.getAsync(documentId, client(mock, RetryPolicy.NONE));
+            long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+            Assert.assertTrue(elapsedMillis < 300);
+            Assert.assertFalse(future.isDone());
+            Document document = future.get();
+            Assert.assertEquals(documentId, document.id);
+            Assert.assertEquals(mock.content(documentId), document.content);
+        }
+    }
+
+    @Test
+    public void testGetAsyncRequestsOverlap() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(4, 1024)) {
+            mock.latencyMillis(200);
+            StarkSignClient client = client(mock, RetryPolicy.NONE);
+
+            List<CompletableFuture<Document>> futures = new ArrayList<>();
+            for (String id : mock.documentIds()) {
+                futures.add(Document.getAsync(id, client));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(mock.documentIds().get(i), futures.get(i).get().id);
+            }
+            Assert.assertEquals(4, mock.maxConcurrentRequests());
+        }
+    }
+
+    @Test
+    public void testGetAsyncFailsWithRequestError() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            try {
+                Document.getAsync("123", client(mock, RetryPolicy.NONE)).get();
+                Assert.fail("expected an error");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof InputErrors);
+            }
+        }
+    }
+
+    @Test
+    public void testGetAsyncIsRetriedUpToMaxAttempts() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.errorRate(1);
+            StarkSignClient client = client(mock, RetryPolicy.builder().maxAttempts(3).baseDelayMillis(1).build());
+            try {
+                Document.getAsync(mock.documentIds().get(0), client).get();
+                Assert.fail("expected an error");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof UnknownError);
+                Assert.assertEquals(3, mock.documentRequests());
+            }
+        }
+    }
+
+    @Test
+    public void testSignAsync() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.latencyMillis(100);
+            String documentId = mock.documentIds().get(0);
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", documentId);
+            params.put("content", mock.content(documentId));
+            params.put("signerId", "6785678567856785");
+            params.put("privateKey", new PrivateKey().toPem());
+
+            CompletableFuture<Document.Signature> future = Document.signAsync(params, client(mock, RetryPolicy.NONE));
+
+            Assert.assertFalse(future.isDone());
+            Assert.assertNotNull(future.get().signature);
+            Assert.assertEquals(1, mock.registeredSignatures());
+        }
+    }
+
+    @Test
+    public void testSignAsyncFailsWithRequestError() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", "123");
+            params.put("content", "<p>content</p>");
+            params.put("signerId", "6785678567856785");
+            params.put("privateKey", new PrivateKey().toPem());
+            try {
+                Document.signAsync(params, client(mock, RetryPolicy.NONE)).get();
+                Assert.fail("expected an error");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof InputErrors);
+                Assert.assertEquals(0, mock.registeredSignatures());
+            }
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, RetryPolicy retryPolicy) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(retryPolicy)
+            .build();
+    }
+}
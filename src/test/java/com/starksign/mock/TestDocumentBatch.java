@@ -0,0 +1,97 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.Document;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
+import com.starksign.error.InputErrors;
+import com.starksign.utils.Batch;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+
+public class TestDocumentBatch {
+
+    @Test
+    public void testGetKeepsOrderAndReportsFailures() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(3, 1024)) {
+            List<String> documentIds = mock.documentIds();
+            List<String> ids = Arrays.asList(documentIds.get(2), "123", documentIds.get(0), documentIds.get(2), documentIds.get(1));
+
+            Map<String, Batch.Result<Document>> documents = Document.get(ids, 2, client(mock));
+
+            Assert.assertEquals(
+                Arrays.asList(documentIds.get(2), "123", documentIds.get(0), documentIds.get(1)),
+                new ArrayList<>(documents.keySet())
+            );
+            for (String id : documentIds) {
+                Assert.assertEquals(id, documents.get(id).value.id);
+            }
+            Assert.assertTrue(documents.get("123").error instanceof InputErrors);
+            Assert.assertEquals(3, mock.documentRequests());
+        }
+    }
+
+    @Test
+    public void testGetBoundsRequestsInFlight() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(10, 1024)) {
+            mock.latencyMillis(100);
+
+            Map<String, Batch.Result<Document>> documents = Document.get(mock.documentIds(), 3, client(mock));
+
+            Assert.assertEquals(10, documents.size());
+            Assert.assertTrue(mock.maxConcurrentRequests() <= 3);
+            Assert.assertTrue(mock.maxConcurrentRequests() > 1);
+        }
+    }
+
+    @Test
+    public void testSignAllKeepsOrderAndReportsFailures() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(4, 1024)) {
+            mock.latencyMillis(50);
+            List<String> documentIds = mock.documentIds();
+            List<HashMap<String, Object>> data = new ArrayList<>();
+            for (String id : Arrays.asList(documentIds.get(3), documentIds.get(0), "123", documentIds.get(1), documentIds.get(2))) {
+                data.add(signParams(id, mock.content(id) == null ? "<p>missing</p>" : mock.content(id)));
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+
+            List<Batch.Result<Document.Signature>> signatures = Document.signAll(data, executor, 2, client(mock));
+            executor.shutdown();
+
+            Assert.assertEquals(5, signatures.size());
+            Assert.assertTrue(signatures.get(2).error instanceof InputErrors);
+            for (int i : new int[]{0, 1, 3, 4}) {
+                Assert.assertTrue(signatures.get(i).isSuccess());
+                Assert.assertEquals(data.get(i).get("signerId"), signatures.get(i).value.signerId);
+            }
+            Assert.assertEquals(4, mock.registeredSignatures());
+            Assert.assertTrue(mock.maxConcurrentRequests() <= 2);
+        }
+    }
+
+    private static HashMap<String, Object> signParams(String id, String content) {
+        HashMap<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        params.put("content", content);
+        params.put("signerId", "6785678567856785");
+        params.put("privateKey", new PrivateKey().toPem());
+        return params;
+    }
+
+    private static StarkSignClient client(MockStarkSign mock) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(RetryPolicy.NONE)
+            .build();
+    }
+}
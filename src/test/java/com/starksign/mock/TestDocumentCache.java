@@ -0,0 +1,159 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.ContentStore;
+import com.starksign.Document;
+import com.starksign.DocumentCache;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+public class TestDocumentCache {
+
+    @Test
+    public void testRevalidation() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, new DocumentCache(1000000, 0));
+            String documentId = mock.documentIds().get(0);
+
+            Document first = Document.get(documentId, client);
+            Document second = Document.get(documentId, client);
+
+            Assert.assertTrue(first != second);
+            Assert.assertEquals(first.content, second.content);
+            Assert.assertEquals(2, mock.documentRequests());
+            Assert.assertEquals(1, mock.notModified());
+        }
+    }
+
+    @Test
+    public void testInvalidationOnSign() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, new DocumentCache(1000000, 60));
+            String documentId = mock.documentIds().get(0);
+
+            Document document = Document.get(documentId, client);
+            Document.get(documentId, client);
+            Assert.assertEquals(1, mock.documentRequests());
+
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", documentId);
+            params.put("content", document.content);
+            params.put("signerId", "6785678567856785");
+            params.put("privateKey", new PrivateKey().toPem());
+            Document.sign(params, client);
+
+            Assert.assertEquals(0, client.documentCache.size());
+            Document.get(documentId, client);
+            Assert.assertEquals(2, mock.documentRequests());
+        }
+    }
+
+    @Test
+    public void testConcurrentGetsAreCoalesced() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, null);
+            String documentId = mock.documentIds().get(0);
+            mock.latencyMillis(500);
+
+            int callers = 8;
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            List<Future<Document>> documents = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                documents.add(executor.submit(() -> {
+                    start.await();
+                    return Document.get(documentId, client);
+                }));
+            }
+            start.countDown();
+            Document first = documents.get(0).get();
+            first.status = "changed";
+            for (Future<Document> document : documents.subList(1, callers)) {
+                Assert.assertTrue(first != document.get());
+                Assert.assertEquals("pending", document.get().status);
+            }
+            executor.shutdown();
+
+            Assert.assertEquals(1, mock.documentRequests());
+        }
+    }
+
+    @Test
+    public void testClientsAreNotCoalesced() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient first = client(mock, new DocumentCache(1000000, 60));
+            StarkSignClient second = client(mock, new DocumentCache(1000000, 60));
+            String documentId = mock.documentIds().get(0);
+            mock.latencyMillis(500);
+
+            CompletableFuture<Document> firstDocument = Document.getAsync(documentId, first);
+            CompletableFuture<Document> secondDocument = Document.getAsync(documentId, second);
+            firstDocument.get();
+            secondDocument.get();
+
+            Assert.assertEquals(2, mock.documentRequests());
+            Assert.assertEquals(1, first.documentCache.size());
+            Assert.assertEquals(1, second.documentCache.size());
+        }
+    }
+
+    @Test
+    public void testProjectionsAreNotShared() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, new DocumentCache(1000000, 60));
+            String documentId = mock.documentIds().get(0);
+
+            Document first = Document.get(documentId, client, "status");
+            Document second = Document.get(documentId, client, "status");
+            Assert.assertTrue(first != second);
+            Assert.assertEquals(1, mock.documentRequests());
+
+            Assert.assertEquals(mock.content(documentId), first.content());
+            Assert.assertEquals(mock.content(documentId), first.content);
+            Assert.assertNull(second.content);
+            Assert.assertNull(Document.get(documentId, client, "status").content);
+        }
+    }
+
+    @Test
+    public void testContentIsInternedBeforeCaching() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(2, 1024)) {
+            ContentStore store = new ContentStore(1000000);
+            StarkSignClient client = StarkSignClient.builder()
+                .environment("sandbox")
+                .baseUrl(mock.baseUrl())
+                .retryPolicy(RetryPolicy.NONE)
+                .documentCache(new DocumentCache(1000000, 60))
+                .contentStore(store)
+                .build();
+
+            Document first = Document.get(mock.documentIds().get(0), client);
+            Document second = Document.getAsync(mock.documentIds().get(1), client).get();
+
+            Assert.assertTrue(first.content == second.content);
+            Assert.assertTrue(Document.get(mock.documentIds().get(0), client).content == first.content);
+            Assert.assertEquals(1, store.size());
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, DocumentCache cache) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(RetryPolicy.NONE)
+            .documentCache(cache)
+            .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.starksign.mock;
+
+import com.starksign.Document;
+import com.starksign.HttpConfig;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+
+public class TestHttpConfig {
+
+    @Test
+    public void testClientsShareTheConfigPool() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            HttpConfig config = HttpConfig.builder().build();
+            String documentId = mock.documentIds().get(0);
+
+            Document.get(documentId, client(mock, config, "en-US"));
+            Document.get(documentId, client(mock, config, "pt-BR"));
+            Document.get(documentId, client(mock, config, "en-US"));
+
+            Assert.assertEquals(1, config.stats().connections);
+        }
+    }
+
+    @Test
+    public void testConfigsDoNotShareConnections() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            HttpConfig config = HttpConfig.builder().build();
+            HttpConfig other = HttpConfig.builder().build();
+            String documentId = mock.documentIds().get(0);
+
+            Document.get(documentId, client(mock, config, "en-US"));
+            Assert.assertEquals(0, other.stats().connections);
+
+            Document.get(documentId, client(mock, other, "en-US"));
+            Assert.assertEquals(1, config.stats().connections);
+            Assert.assertEquals(1, other.stats().connections);
+        }
+    }
+
+    @Test
+    public void testDispatcherBoundsAsyncRequests() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(6, 1024)) {
+            mock.latencyMillis(300);
+            HttpConfig config = HttpConfig.builder().maxRequestsPerHost(2).build();
+            StarkSignClient client = client(mock, config, "en-US");
+
+            List<CompletableFuture<Document>> futures = new ArrayList<>();
+            for (String id : mock.documentIds()) {
+                futures.add(Document.getAsync(id, client));
+            }
+            HttpConfig.Stats stats = config.stats();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+            Assert.assertEquals(2, stats.runningCalls);
+            Assert.assertEquals(4, stats.queuedCalls);
+            Assert.assertEquals(2, mock.maxConcurrentRequests());
+            Assert.assertEquals(6, mock.documentRequests());
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, HttpConfig config, String language) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .language(language)
+            .httpConfig(config)
+            .retryPolicy(RetryPolicy.NONE)
+            .build();
+    }
+}
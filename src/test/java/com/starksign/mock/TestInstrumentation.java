@@ -0,0 +1,200 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.Document;
+import com.starksign.Instrumentation;
+import com.starksign.RetryPolicy;
+import com.starksign.SignatureRequest;
+import com.starksign.StarkSignClient;
+import com.starksign.error.InputErrors;
+import com.starksign.error.InvalidSignatureError;
+import com.starksign.error.UnknownError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+public class TestInstrumentation {
+
+    @Test
+    public void testRequestEvents() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            Recorder recorder = new Recorder();
+            StarkSignClient client = client(mock, RetryPolicy.NONE, recorder, 10);
+            String documentId = mock.documentIds().get(0);
+
+            Document.get(documentId, client);
+            Document.get(documentId, client);
+
+            Assert.assertEquals(1, recorder.count("connect"));
+            Assert.assertEquals(0, recorder.count("connectError"));
+            Assert.assertEquals(0, recorder.count("tls"));
+            Assert.assertEquals(2, recorder.count("request GET /v2/document/" + documentId + " 200"));
+            Assert.assertEquals(2, recorder.count("responseBody /v2/document/" + documentId));
+            Assert.assertEquals(2, recorder.count("parse Document"));
+            Assert.assertTrue(recorder.minNanos > 0);
+            Assert.assertTrue(recorder.minBytes > mock.content(documentId).length());
+        }
+    }
+
+    @Test
+    public void testFailedAttemptsAreReported() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            Recorder recorder = new Recorder();
+            mock.errorRate(1);
+            StarkSignClient client = client(mock, RetryPolicy.builder().maxAttempts(3).baseDelayMillis(1).build(),
+                recorder, 10);
+            String documentId = mock.documentIds().get(0);
+            try {
+                Document.get(documentId, client);
+                Assert.fail("expected an error");
+            } catch (UnknownError e) {
+                // expected
+            }
+            mock.errorRate(0);
+            try {
+                Document.get("123", client);
+                Assert.fail("expected an error");
+            } catch (InputErrors e) {
+                // expected
+            }
+
+            Assert.assertEquals(3, recorder.count("request GET /v2/document/" + documentId + " 503"));
+            Assert.assertEquals(1, recorder.count("request GET /v2/document/123 400"));
+            Assert.assertEquals(0, recorder.count("parse Document"));
+        }
+    }
+
+    @Test
+    public void testSignEvents() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            Recorder recorder = new Recorder();
+            String documentId = mock.documentIds().get(0);
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", documentId);
+            params.put("content", mock.content(documentId));
+            params.put("signerId", "6785678567856785");
+            params.put("privateKey", new PrivateKey().toPem());
+
+            Document.sign(params, client(mock, RetryPolicy.NONE, recorder, 10));
+
+            Assert.assertEquals(1, recorder.count("sign"));
+            Assert.assertEquals(1, recorder.count("request POST /v2/document/" + documentId + "/signature 200"));
+            Assert.assertEquals(1, recorder.count("parse Signature"));
+        }
+    }
+
+    @Test
+    public void testVerifyEvents() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            Recorder recorder = new Recorder();
+            StarkSignClient client = client(mock, RetryPolicy.NONE, recorder, 0);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+
+            SignatureRequest.parse(payload.content, payload.signature, client);
+            SignatureRequest.parse(payload.content, payload.signature, client);
+            Assert.assertEquals(1, recorder.count("publicKeyCache false"));
+            Assert.assertEquals(1, recorder.count("publicKeyCache true"));
+            Assert.assertEquals(2, recorder.count("verify true"));
+            Assert.assertEquals(1, recorder.count("request GET /v2/public-key 200"));
+
+            String forged = Ecdsa.sign(payload.content, new PrivateKey()).toBase64();
+            try {
+                SignatureRequest.parse(payload.content, forged, client);
+                Assert.fail("expected an error");
+            } catch (InvalidSignatureError e) {
+                // expected
+            }
+            Assert.assertEquals(1, recorder.count("publicKeyRefresh"));
+            Assert.assertEquals(2, recorder.count("verify false"));
+            Assert.assertEquals(2, recorder.count("request GET /v2/public-key 200"));
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, RetryPolicy retryPolicy, Instrumentation instrumentation,
+                                          long refreshIntervalSeconds) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(retryPolicy)
+            .instrumentation(instrumentation)
+            .publicKeyRefreshIntervalSeconds(refreshIntervalSeconds)
+            .build();
+    }
+
+    /**
+     * Instrumentation that records each call as a short line, for counting
+     */
+    private static final class Recorder implements Instrumentation {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile long minNanos = Long.MAX_VALUE;
+        private volatile long minBytes = Long.MAX_VALUE;
+
+        private int count(String event) {
+            int count = 0;
+            for (String recorded : events) {
+                if (recorded.equals(event)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private void nanos(long nanos) {
+            minNanos = Math.min(minNanos, nanos);
+        }
+
+        @Override
+        public void onConnect(String host, long nanos, Throwable error) {
+            events.add(error == null ? "connect" : "connectError");
+        }
+
+        @Override
+        public void onTls(String host, long nanos) {
+            events.add("tls");
+        }
+
+        @Override
+        public void onRequest(String method, String path, int status, long nanos, Throwable error) {
+            nanos(nanos);
+            events.add("request " + method + " " + path + " " + status);
+        }
+
+        @Override
+        public void onResponseBody(String path, long bytes) {
+            minBytes = Math.min(minBytes, bytes);
+            events.add("responseBody " + path);
+        }
+
+        @Override
+        public void onParse(String resource, long nanos) {
+            nanos(nanos);
+            events.add("parse " + resource);
+        }
+
+        @Override
+        public void onSign(long nanos) {
+            nanos(nanos);
+            events.add("sign");
+        }
+
+        @Override
+        public void onVerify(long nanos, boolean valid) {
+            events.add("verify " + valid);
+        }
+
+        @Override
+        public void onPublicKeyCache(boolean hit) {
+            events.add("publicKeyCache " + hit);
+        }
+
+        @Override
+        public void onPublicKeyRefresh() {
+            events.add("publicKeyRefresh");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.starksign.mock;
+
+import com.starksign.Document;
+import com.starksign.RetryPolicy;
+import com.starksign.SignatureRequest;
+import com.starksign.StarkSignClient;
+import com.starksign.error.UnknownError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+
+public class TestMockStarkSign {
+
+    @Test
+    public void testServerSignature() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, RetryPolicy.DEFAULT);
+            String documentId = mock.documentIds().get(0);
+
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(documentId);
+            SignatureRequest request = SignatureRequest.parse(payload.content, payload.signature, client);
+            Assert.assertEquals(documentId, request.documentId);
+
+            Document document = Document.get(request.documentId, client);
+            Assert.assertEquals(documentId, document.id);
+
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", document.id);
+            params.put("content", document.content);
+            params.put("signerId", request.signerId);
+            params.put("privateKey", request.privateKey);
+            Document.Signature signature = Document.sign(params, client);
+
+            Assert.assertNotNull(signature.signature);
+            Assert.assertEquals(1, mock.registeredSignatures());
+        }
+    }
+
+    @Test
+    public void testRetriedSignatureIsRegisteredOnce() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            RetryPolicy retryPolicy = RetryPolicy.builder()
+                .maxAttempts(4)
+                .baseDelayMillis(1)
+                .maxRetryBudget(3)
+                .build();
+            StarkSignClient client = client(mock, retryPolicy);
+            String documentId = mock.documentIds().get(0);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(documentId);
+            SignatureRequest request = SignatureRequest.parse(payload.content, payload.signature, client);
+            mock.failNext(3);
+
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", documentId);
+            params.put("content", "<p>content</p>");
+            params.put("signerId", request.signerId);
+            params.put("privateKey", request.privateKey);
+            Document.sign(params, client);
+
+            Assert.assertEquals(1, mock.registeredSignatures());
+        }
+    }
+
+    @Test
+    public void testFailedGetIsRetriedUpToMaxAttempts() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.errorRate(1);
+            StarkSignClient client = client(mock, RetryPolicy.builder().maxAttempts(3).baseDelayMillis(1).build());
+            try {
+                Document.get(mock.documentIds().get(0), client);
+                Assert.fail("expected an error");
+            } catch (UnknownError e) {
+                Assert.assertEquals(3, mock.documentRequests());
+            }
+        }
+    }
+
+    @Test
+    public void testRetriesStopWhenBudgetRunsOut() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.errorRate(1);
+            RetryPolicy retryPolicy = RetryPolicy.builder()
+                .maxAttempts(10)
+                .baseDelayMillis(1)
+                .retryBudgetRatio(0)
+                .maxRetryBudget(2)
+                .build();
+            StarkSignClient client = client(mock, retryPolicy);
+            for (int i = 0; i < 2; i++) {
+                try {
+                    Document.get(mock.documentIds().get(0), client);
+                    Assert.fail("expected an error");
+                } catch (UnknownError e) {
+                    // expected
+                }
+            }
+            Assert.assertEquals(4, mock.documentRequests());
+        }
+    }
+
+    @Test
+    public void testFieldProjection() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            String documentId = mock.documentIds().get(0);
+            Document document = Document.get(documentId, client(mock, RetryPolicy.NONE), "status");
+
+            Assert.assertEquals("pending", document.status);
+            Assert.assertNull(document.content);
+            Assert.assertNull(document.signers);
+            Assert.assertEquals(mock.content(documentId), document.content());
+        }
+    }
+
+    @Test(expected = UnknownError.class)
+    public void testInjectedFailure() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.errorRate(1);
+            Document.get(mock.documentIds().get(0), client(mock, RetryPolicy.NONE));
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, RetryPolicy retryPolicy) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(retryPolicy)
+            .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.RetryPolicy;
+import com.starksign.SignatureRequest;
+import com.starksign.StarkSignClient;
+import com.starksign.error.InvalidSignatureError;
+import com.starksign.utils.Parse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+public class TestPublicKeyCache {
+
+    @Test
+    public void testKeysAreCachedWithinTtl() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 3600, 10);
+            for (int i = 0; i < 3; i++) {
+                MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+                SignatureRequest.parse(payload.content, payload.signature, client);
+            }
+            Assert.assertEquals(1, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testKeysAreFetchedAgainAfterTtl() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 1, 10);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+
+            SignatureRequest.parse(payload.content, payload.signature, client);
+            SignatureRequest.parse(payload.content, payload.signature, client);
+            Assert.assertEquals(1, mock.publicKeyRequests());
+
+            Thread.sleep(1100);
+            SignatureRequest.parse(payload.content, payload.signature, client);
+            Assert.assertEquals(2, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 3600, 10);
+
+            Parse.warmUp(client);
+            Assert.assertEquals(1, mock.publicKeyRequests());
+
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+            SignatureRequest.parse(payload.content, payload.signature, client);
+            Assert.assertEquals(1, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testConcurrentParsesShareOneFetch() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.latencyMillis(200);
+            StarkSignClient client = client(mock, 3600, 10);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<SignatureRequest>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(
+                    (Callable<SignatureRequest>) () -> SignatureRequest.parse(payload.content, payload.signature, client)
+                ));
+            }
+            for (Future<SignatureRequest> future : futures) {
+                Assert.assertEquals(mock.documentIds().get(0), future.get().documentId);
+            }
+            executor.shutdown();
+
+            Assert.assertEquals(1, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testInvalidSignatureRefreshIsRateLimited() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 3600, 3600);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+            String forged = Ecdsa.sign(payload.content, new PrivateKey()).toBase64();
+
+            for (int i = 0; i < 5; i++) {
+                try {
+                    SignatureRequest.parse(payload.content, forged, client);
+                    Assert.fail("expected an error");
+                } catch (InvalidSignatureError e) {
+                    // expected
+                }
+            }
+
+            Assert.assertEquals(1, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testInvalidSignatureRefreshesAfterInterval() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 3600, 0);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+            String forged = Ecdsa.sign(payload.content, new PrivateKey()).toBase64();
+
+            for (int i = 0; i < 3; i++) {
+                try {
+                    SignatureRequest.parse(payload.content, forged, client);
+                    Assert.fail("expected an error");
+                } catch (InvalidSignatureError e) {
+                    // expected
+                }
+            }
+
+            Assert.assertEquals(4, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testSignaturesOfBothKeysVerifyAfterRotation() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 3600, 0);
+            String documentId = mock.documentIds().get(0);
+            MockStarkSign.SignedPayload previous = mock.signatureRequest(documentId);
+            SignatureRequest.parse(previous.content, previous.signature, client);
+
+            mock.rotateKey();
+            MockStarkSign.SignedPayload current = mock.signatureRequest(documentId);
+            SignatureRequest.parse(current.content, current.signature, client);
+            Assert.assertEquals(2, mock.publicKeyRequests());
+
+            for (int i = 0; i < 3; i++) {
+                SignatureRequest.parse(previous.content, previous.signature, client);
+                SignatureRequest.parse(current.content, current.signature, client);
+            }
+            Assert.assertEquals(2, mock.publicKeyRequests());
+        }
+    }
+
+    @Test
+    public void testRotatedKeysVerifyWithOneFetch() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, 3600, 3600);
+            String documentId = mock.documentIds().get(0);
+            MockStarkSign.SignedPayload previous = mock.signatureRequest(documentId);
+            mock.rotateKey();
+            MockStarkSign.SignedPayload current = mock.signatureRequest(documentId);
+
+            for (int i = 0; i < 3; i++) {
+                SignatureRequest.parse(current.content, current.signature, client);
+                SignatureRequest.parse(previous.content, previous.signature, client);
+            }
+
+            Assert.assertEquals(1, mock.publicKeyRequests());
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, long ttlSeconds, long refreshIntervalSeconds)
+            throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(RetryPolicy.NONE)
+            .publicKeyTtlSeconds(ttlSeconds)
+            .publicKeyRefreshIntervalSeconds(refreshIntervalSeconds)
+            .build();
+    }
+}
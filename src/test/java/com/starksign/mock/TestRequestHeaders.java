@@ -0,0 +1,95 @@
+package com.starksign.mock;
+
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.Document;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+
+public class TestRequestHeaders {
+
+    @Test
+    public void testGetEndpointAndHeaders() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            String documentId = mock.documentIds().get(0);
+
+            Document.get(documentId, client(mock, "pt-BR"));
+
+            RecordedRequest request = mock.takeRequest();
+            Assert.assertEquals("GET", request.getMethod());
+            Assert.assertEquals("/v2/document/" + documentId, request.getPath());
+            Assert.assertTrue(request.getHeader("User-Agent").startsWith("Java-"));
+            Assert.assertTrue(request.getHeader("User-Agent").endsWith("-SDK-Sign-0.0.1"));
+            Assert.assertEquals("application/json", request.getHeader("Content-Type"));
+            Assert.assertEquals("pt-BR", request.getHeader("Accept-Language"));
+            Assert.assertNull(request.getHeader("Idempotency-Key"));
+        }
+    }
+
+    @Test
+    public void testLanguagesKeepTheirOwnHeaders() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            String documentId = mock.documentIds().get(0);
+
+            Document.get(documentId, client(mock, "pt-BR"));
+            Document.get(documentId, client(mock, "en-US"));
+            Document.get(documentId, client(mock, "pt-BR"));
+
+            Assert.assertEquals("pt-BR", mock.takeRequest().getHeader("Accept-Language"));
+            Assert.assertEquals("en-US", mock.takeRequest().getHeader("Accept-Language"));
+            Assert.assertEquals("pt-BR", mock.takeRequest().getHeader("Accept-Language"));
+        }
+    }
+
+    @Test
+    public void testProjectedGetQuery() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            String documentId = mock.documentIds().get(0);
+
+            Document.get(documentId, client(mock, "en-US"), "status");
+
+            Assert.assertEquals("/v2/document/" + documentId + "?fields=status", mock.takeRequest().getPath());
+        }
+    }
+
+    @Test
+    public void testExtraHeadersDoNotLeakIntoBaseHeaders() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock, "en-US");
+            String documentId = mock.documentIds().get(0);
+            HashMap<String, Object> params = new HashMap<>();
+            params.put("id", documentId);
+            params.put("content", mock.content(documentId));
+            params.put("signerId", "6785678567856785");
+            params.put("privateKey", new PrivateKey().toPem());
+
+            Document.sign(params, client);
+            Document.get(documentId, client);
+
+            RecordedRequest signature = mock.takeRequest();
+            Assert.assertEquals("POST", signature.getMethod());
+            Assert.assertEquals("/v2/document/" + documentId + "/signature", signature.getPath());
+            Assert.assertNotNull(signature.getHeader("Idempotency-Key"));
+            Assert.assertEquals("en-US", signature.getHeader("Accept-Language"));
+            Assert.assertTrue(signature.getHeader("Content-Type").startsWith("application/json"));
+
+            RecordedRequest document = mock.takeRequest();
+            Assert.assertEquals("GET", document.getMethod());
+            Assert.assertNull(document.getHeader("Idempotency-Key"));
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock, String language) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .language(language)
+            .retryPolicy(RetryPolicy.NONE)
+            .build();
+    }
+}
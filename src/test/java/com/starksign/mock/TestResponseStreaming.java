@@ -0,0 +1,74 @@
+package com.starksign.mock;
+
+import com.starksign.Document;
+import com.starksign.RetryPolicy;
+import com.starksign.StarkSignClient;
+import com.starksign.error.InputErrors;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TestResponseStreaming {
+
+    @Test
+    public void testLargeMultiByteDocument() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 2 * 1024 * 1024)) {
+            String documentId = mock.documentIds().get(0);
+
+            Document document = Document.get(documentId, client(mock));
+
+            Assert.assertEquals(documentId, document.id);
+            Assert.assertEquals(mock.content(documentId), document.content);
+            Assert.assertEquals("pending", document.status);
+        }
+    }
+
+    @Test
+    public void testUnknownEnvelopeFieldsAreSkipped() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.envelopeExtras(true);
+            String documentId = mock.documentIds().get(0);
+
+            Document document = Document.get(documentId, client(mock));
+
+            Assert.assertEquals(documentId, document.id);
+            Assert.assertEquals(mock.content(documentId), document.content);
+            Assert.assertEquals(0, document.signers.size());
+        }
+    }
+
+    @Test
+    public void testProjectedEnvelope() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            mock.envelopeExtras(true);
+            String documentId = mock.documentIds().get(0);
+
+            Document document = Document.get(documentId, client(mock), "status");
+
+            Assert.assertEquals(documentId, document.id);
+            Assert.assertEquals("pending", document.status);
+            Assert.assertNull(document.content);
+        }
+    }
+
+    @Test
+    public void testErrorBodyIsRead() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            try {
+                Document.get("123", client(mock));
+                Assert.fail("expected an error");
+            } catch (InputErrors e) {
+                Assert.assertEquals(1, e.errors.size());
+                Assert.assertEquals("invalidDocumentId", e.errors.get(0).code);
+            }
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(RetryPolicy.NONE)
+            .build();
+    }
+}
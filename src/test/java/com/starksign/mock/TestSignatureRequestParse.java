@@ -0,0 +1,100 @@
+package com.starksign.mock;
+
+import com.starksign.RetryPolicy;
+import com.starksign.SignatureRequest;
+import com.starksign.StarkSignClient;
+import com.starksign.error.InvalidSignatureError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+public class TestSignatureRequestParse {
+
+    private static final String signerId = "Jos\u00e9 \u00c1vila \u4e2d\u6587 \ud83d\ude00";
+
+    @Test
+    public void testBytesMatchString() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0), signerId);
+            byte[] content = payload.content.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(content.length > payload.content.length());
+
+            SignatureRequest expected = SignatureRequest.parse(payload.content, payload.signature, client);
+            SignatureRequest request = SignatureRequest.parse(content, payload.signature, client);
+
+            Assert.assertEquals(signerId, expected.signerId);
+            assertSame(expected, request);
+        }
+    }
+
+    @Test
+    public void testBufferAtOffsetMatchesString() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0), signerId);
+            byte[] content = payload.content.getBytes(StandardCharsets.UTF_8);
+
+            ByteBuffer buffer = ByteBuffer.allocate(content.length + 16);
+            buffer.put("\u00e9prefix".getBytes(StandardCharsets.UTF_8));
+            int start = buffer.position();
+            buffer.put(content);
+            buffer.put("suffix".getBytes(StandardCharsets.UTF_8));
+            buffer.position(start);
+            buffer.limit(start + content.length);
+            ByteBuffer slice = buffer.slice();
+
+            SignatureRequest expected = SignatureRequest.parse(payload.content, payload.signature, client);
+            assertSame(expected, SignatureRequest.parse(buffer, payload.signature, client));
+            assertSame(expected, SignatureRequest.parse(slice, payload.signature, client));
+
+            Assert.assertEquals(start, buffer.position());
+            Assert.assertEquals(start + content.length, buffer.limit());
+            Assert.assertEquals(0, slice.position());
+        }
+    }
+
+    @Test
+    public void testReadOnlyDirectBufferMatchesString() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            StarkSignClient client = client(mock);
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0), signerId);
+            byte[] content = payload.content.getBytes(StandardCharsets.UTF_8);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(content.length);
+            direct.put(content);
+            direct.flip();
+            ByteBuffer buffer = direct.asReadOnlyBuffer();
+
+            SignatureRequest expected = SignatureRequest.parse(payload.content, payload.signature, client);
+            assertSame(expected, SignatureRequest.parse(buffer, payload.signature, client));
+            Assert.assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test(expected = InvalidSignatureError.class)
+    public void testTamperedBytesAreRejected() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0), signerId);
+            byte[] content = payload.content.replace("\u00e9", "e").getBytes(StandardCharsets.UTF_8);
+            SignatureRequest.parse(content, payload.signature, client(mock));
+        }
+    }
+
+    private static void assertSame(SignatureRequest expected, SignatureRequest request) {
+        Assert.assertEquals(expected.documentId, request.documentId);
+        Assert.assertEquals(expected.signerId, request.signerId);
+        Assert.assertEquals(expected.privateKey, request.privateKey);
+    }
+
+    private static StarkSignClient client(MockStarkSign mock) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(RetryPolicy.NONE)
+            .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.starksign.mock;
+
+import com.starksign.RetryPolicy;
+import com.starksign.SignatureRequest;
+import com.starksign.SignatureRequestProcessor;
+import com.starksign.StarkSignClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TestSignatureRequestProcessor {
+
+    @Test
+    public void testReplaysAreDropped() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+            List<SignatureRequest> requests = Collections.synchronizedList(new ArrayList<>());
+            SignatureRequestProcessor processor = SignatureRequestProcessor.builder()
+                .onRequest(requests::add)
+                .client(client(mock))
+                .workers(2)
+                .build();
+
+            for (int i = 0; i < 5; i++) {
+                Assert.assertTrue(processor.submit(payload.content, payload.signature));
+            }
+            processor.close();
+
+            Assert.assertEquals(1, requests.size());
+            Assert.assertEquals(1, processor.stats().verified);
+            Assert.assertEquals(4, processor.stats().duplicates);
+            Assert.assertFalse(processor.submit(payload.content, payload.signature));
+        }
+    }
+
+    @Test
+    public void testFailedRequestsAreVerifiedAgain() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            MockStarkSign.SignedPayload payload = mock.signatureRequest(mock.documentIds().get(0));
+            MockStarkSign.SignedPayload other = mock.signatureRequest(mock.documentIds().get(0));
+            AtomicInteger errors = new AtomicInteger();
+            CountDownLatch failed = new CountDownLatch(1);
+            SignatureRequestProcessor processor = SignatureRequestProcessor.builder()
+                .onRequest(request -> {})
+                .onError((content, error) -> {
+                    errors.incrementAndGet();
+                    failed.countDown();
+                })
+                .client(client(mock))
+                .workers(1)
+                .build();
+
+            Assert.assertTrue(processor.submit(payload.content, other.signature));
+            failed.await();
+            Assert.assertTrue(processor.submit(payload.content, payload.signature));
+            Assert.assertTrue(processor.submit(payload.content, other.signature));
+            processor.close();
+
+            Assert.assertEquals(2, errors.get());
+            Assert.assertEquals(2, processor.stats().failed);
+            Assert.assertEquals(1, processor.stats().verified);
+            Assert.assertEquals(0, processor.stats().duplicates);
+        }
+    }
+
+    @Test
+    public void testFullQueueIsRejected() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            String documentId = mock.documentIds().get(0);
+            CountDownLatch processing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            SignatureRequestProcessor processor = SignatureRequestProcessor.builder()
+                .onRequest(request -> {
+                    processing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .client(client(mock))
+                .queueCapacity(1)
+                .workers(1)
+                .batchSize(1)
+                .build();
+
+            MockStarkSign.SignedPayload first = mock.signatureRequest(documentId);
+            MockStarkSign.SignedPayload second = mock.signatureRequest(documentId);
+            MockStarkSign.SignedPayload third = mock.signatureRequest(documentId);
+            Assert.assertTrue(processor.submit(first.content, first.signature));
+            processing.await();
+            Assert.assertTrue(processor.submit(second.content, second.signature));
+            Assert.assertFalse(processor.submit(third.content, third.signature));
+            Assert.assertEquals(1, processor.stats().rejected);
+
+            release.countDown();
+            processor.close();
+            Assert.assertEquals(2, processor.stats().verified);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseDrainsQueueDespiteThrowingCallbacks() throws Exception {
+        try (MockStarkSign mock = new MockStarkSign(1, 1024)) {
+            String documentId = mock.documentIds().get(0);
+            AtomicInteger calls = new AtomicInteger();
+            SignatureRequestProcessor processor = SignatureRequestProcessor.builder()
+                .onRequest(request -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("onRequest failed");
+                })
+                .onError((content, error) -> {
+                    throw new IllegalStateException("onError failed");
+                })
+                .client(client(mock))
+                .queueCapacity(100)
+                .workers(2)
+                .batchSize(4)
+                .build();
+
+            int count = 50;
+            for (int i = 0; i < count; i++) {
+                MockStarkSign.SignedPayload payload = mock.signatureRequest(documentId);
+                Assert.assertTrue(processor.submit(payload.content, payload.signature));
+            }
+            processor.close();
+
+            Assert.assertEquals(count, calls.get());
+            Assert.assertEquals(count, processor.stats().verified);
+            Assert.assertEquals(0, processor.stats().queued);
+        }
+    }
+
+    private static StarkSignClient client(MockStarkSign mock) throws Exception {
+        return StarkSignClient.builder()
+            .environment("sandbox")
+            .baseUrl(mock.baseUrl())
+            .retryPolicy(RetryPolicy.NONE)
+            .build();
+    }
+}
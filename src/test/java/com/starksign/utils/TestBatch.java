@@ -0,0 +1,84 @@
+package com.starksign.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TestBatch {
+
+    @Test
+    public void testResultsKeepItemOrder() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        List<Integer> delays = Arrays.asList(80, 10, 50, 0, 30);
+
+        List<Batch.Result<Integer>> results = Batch.run(delays, 5, delay -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            scheduler.schedule(() -> future.complete(delay * 2), delay, TimeUnit.MILLISECONDS);
+            return future;
+        });
+        scheduler.shutdown();
+
+        Assert.assertEquals(delays.size(), results.size());
+        for (int i = 0; i < delays.size(); i++) {
+            Assert.assertTrue(results.get(i).isSuccess());
+            Assert.assertEquals(delays.get(i) * 2, (long) results.get(i).value);
+        }
+    }
+
+    @Test
+    public void testPartialFailure() throws Exception {
+        List<Integer> items = Arrays.asList(1, 2, 3, 4);
+
+        List<Batch.Result<Integer>> results = Batch.run(items, 2, item -> {
+            if (item == 2) {
+                throw new IllegalStateException("thrown");
+            }
+            if (item == 3) {
+                return CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalArgumentException("failed");
+                });
+            }
+            return CompletableFuture.completedFuture(item);
+        });
+
+        Assert.assertEquals(1, (long) results.get(0).value);
+        Assert.assertTrue(results.get(1).error instanceof IllegalStateException);
+        Assert.assertTrue(results.get(2).error instanceof IllegalArgumentException);
+        Assert.assertNull(results.get(2).value);
+        Assert.assertEquals(4, (long) results.get(3).value);
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(8);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<Batch.Result<Integer>> results = Batch.run(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), 3, item -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                inFlight.decrementAndGet();
+                future.complete(item);
+            }, 20, TimeUnit.MILLISECONDS);
+            return future;
+        });
+        scheduler.shutdown();
+
+        Assert.assertEquals(10, results.size());
+        Assert.assertEquals(3, maxInFlight.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() throws Exception {
+        Batch.run(Arrays.asList(1), 0, CompletableFuture::completedFuture);
+    }
+}
@@ -0,0 +1,65 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starksign.ContentStore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+
+public class TestContentStore {
+
+    @Test
+    public void testIntern() {
+        StringStore store = new ContentStore(1000);
+        String content = "<p>Contract</p>";
+        String copy = new String(content.toCharArray());
+
+        Assert.assertTrue(store.intern(content) == content);
+        Assert.assertTrue(store.intern(copy) == content);
+        Assert.assertTrue(store.intern("<p>Other</p>") != content);
+        Assert.assertNull(store.intern(null));
+        Assert.assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testEviction() {
+        StringStore store = new ContentStore(20);
+        String first = store.intern("<p>first one</p>");
+        store.intern("<p>second one</p>");
+
+        Assert.assertEquals(1, store.size());
+        Assert.assertNull(store.digestIfPresent(first));
+        Assert.assertTrue(store.intern(new String(first.toCharArray())) != first);
+    }
+
+    @Test
+    public void testDigestIfPresent() {
+        StringStore store = new ContentStore(1000);
+        String content = store.intern("<p>Contract</p>");
+
+        byte[] digest = store.digestIfPresent(content);
+        Assert.assertTrue(Arrays.equals(Hash.sha256(content), digest));
+        Assert.assertTrue(store.digestIfPresent(content) == digest);
+        Assert.assertNull(store.digestIfPresent(new String(content.toCharArray())));
+        Assert.assertNull(store.digestIfPresent("<p>Other</p>"));
+        Assert.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testSigningReusesDigestWithoutStoring() {
+        StringStore store = new ContentStore(1000);
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaSigner signer = EcdsaSigner.fromPem(privateKey.toPem());
+        String stored = store.intern("<p>Contract</p>");
+        String other = "<p>Other</p>";
+
+        Assert.assertTrue(Ecdsa.verify(stored, signer.sign(stored, store), privateKey.publicKey()));
+        Assert.assertTrue(Ecdsa.verify(other, signer.sign(other, store), privateKey.publicKey()));
+        Assert.assertTrue(Ecdsa.verify(other, signer.sign(other, null), privateKey.publicKey()));
+        Assert.assertEquals(1, store.size());
+        Assert.assertNull(store.digestIfPresent(other));
+    }
+}
@@ -0,0 +1,61 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.Curve;
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starkbank.ellipticcurve.Signature;
+import com.starkbank.ellipticcurve.utils.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+
+public class TestEcdsaSigner {
+
+    @Test
+    public void testSignaturesVerify() throws Exception {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaSigner signer = EcdsaSigner.fromPem(privateKey.toPem());
+
+        for (int i = 0; i < 20; i++) {
+            String content = "<p>Contract " + i + "</p>";
+            assertValid(content, signer.sign(content), privateKey);
+            assertValid(content, signer.sign(new StringReader(content)), privateKey);
+            assertValid(content, signer.sign(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))), privateKey);
+        }
+    }
+
+    @Test
+    public void testTokenSignaturesVerify() {
+        String message = "5155165527080960:6785678567856785:a8B1kxJ";
+        BigInteger secret = new BigInteger(1, Hash.sha256(message.getBytes(StandardCharsets.UTF_8)));
+        PrivateKey privateKey = new PrivateKey(Curve.secp256k1, secret);
+
+        EcdsaSigner signer = EcdsaSigner.fromToken("5155165527080960", "6785678567856785", "a8B1kxJ");
+
+        Assert.assertTrue(signer == EcdsaSigner.fromToken("5155165527080960", "6785678567856785", "a8B1kxJ"));
+        assertValid("<p>content</p>", signer.sign("<p>content</p>"), privateKey);
+    }
+
+    @Test
+    public void testWrongContent() {
+        PrivateKey privateKey = new PrivateKey();
+        Signature signature = EcdsaSigner.fromPem(privateKey.toPem()).sign("<p>1</p>");
+        Assert.assertFalse(Ecdsa.verify("<p>2</p>", signature, privateKey.publicKey()));
+    }
+
+    private static void assertValid(String content, Signature signature, PrivateKey privateKey) {
+        BigInteger n = Curve.secp256k1.N;
+        Assert.assertTrue(signature.r.signum() > 0 && signature.r.compareTo(n) < 0);
+        Assert.assertTrue(signature.s.signum() > 0 && signature.s.compareTo(n) < 0);
+
+        Signature decoded = Signature.fromBase64(new ByteString(signature.toBase64().getBytes(StandardCharsets.US_ASCII)));
+        Assert.assertEquals(signature.r, decoded.r);
+        Assert.assertEquals(signature.s, decoded.s);
+        Assert.assertTrue(Ecdsa.verify(content, decoded, privateKey.publicKey()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.starksign.utils;
+
+import com.starkbank.ellipticcurve.Ecdsa;
+import com.starkbank.ellipticcurve.PrivateKey;
+import com.starkbank.ellipticcurve.Signature;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TestEcdsaVerifier {
+
+    @Test
+    public void testSuccess() {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaVerifier verifier = new EcdsaVerifier(privateKey.publicKey());
+
+        for (int i = 0; i < 20; i++) {
+            String content = "{\"documentId\": \"" + i + "\", \"signerId\": \"6713235394789376\"}";
+            Signature signature = Ecdsa.sign(content, privateKey);
+            Assert.assertTrue(verifier.verify(content, signature));
+        }
+    }
+
+    @Test
+    public void testWrongContent() {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaVerifier verifier = new EcdsaVerifier(privateKey.publicKey());
+
+        Signature signature = Ecdsa.sign("{\"documentId\": \"1\"}", privateKey);
+        Assert.assertFalse(verifier.verify("{\"documentId\": \"2\"}", signature));
+    }
+
+    @Test
+    public void testWrongKey() {
+        PrivateKey privateKey = new PrivateKey();
+        EcdsaVerifier verifier = new EcdsaVerifier(new PrivateKey().publicKey());
+
+        Signature signature = Ecdsa.sign("{\"documentId\": \"1\"}", privateKey);
+        Assert.assertFalse(verifier.verify("{\"documentId\": \"1\"}", signature));
+    }
+}
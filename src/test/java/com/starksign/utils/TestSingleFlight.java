@@ -0,0 +1,68 @@
+package com.starksign.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TestSingleFlight {
+
+    @Test
+    public void testCallsAreCoalesced() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Object value = new Object();
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return flight.run("key", () -> {
+                    executions.incrementAndGet();
+                    running.countDown();
+                    release.await();
+                    return value;
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        running.await();
+        CompletableFuture<Object> joined = flight.runAsync("key", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(new Object());
+        });
+        release.countDown();
+
+        Assert.assertTrue(first.get() == value);
+        Assert.assertTrue(joined.get() == value);
+        Assert.assertEquals(1, executions.get());
+        Assert.assertTrue(flight.run("key", Object::new) != value);
+    }
+
+    @Test
+    public void testErrorsReachEveryCaller() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        CompletableFuture<Object> call = new CompletableFuture<>();
+
+        CompletableFuture<Object> first = flight.runAsync("key", () -> call);
+        CompletableFuture<Object> joined = flight.runAsync("key", CompletableFuture::new);
+        call.completeExceptionally(new IllegalStateException("failed"));
+
+        assertFailed(first);
+        assertFailed(joined);
+    }
+
+    private static void assertFailed(CompletableFuture<Object> future) throws InterruptedException {
+        try {
+            future.get();
+            Assert.fail("expected an error");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
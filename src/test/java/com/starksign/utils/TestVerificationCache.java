@@ -0,0 +1,75 @@
+package com.starksign.utils;
+
+import com.starksign.VerificationCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TestVerificationCache {
+
+    private static final String signature = "MEUCIQD6cymQq40/06XuIelkv2t9qd9rPACooRH8faCB8SuPIQIgOqIil/1Vm/jni8eTDsoO5ytdoDitZocm3KSLzUYHCrQ=";
+
+    @Test
+    public void testHit() {
+        SignatureCache cache = new VerificationCache(10, 300);
+        Object publicKeys = new Object();
+        byte[] hash = Hash.sha256("<p>content</p>");
+
+        Assert.assertFalse(cache.contains(hash, signature, publicKeys));
+        cache.put(hash, signature, publicKeys);
+
+        Assert.assertTrue(cache.contains(Hash.sha256("<p>content</p>"), signature, publicKeys));
+        Assert.assertFalse(cache.contains(Hash.sha256("<p>other</p>"), signature, publicKeys));
+        Assert.assertFalse(cache.contains(hash, signature.replace('M', 'N'), publicKeys));
+    }
+
+    @Test
+    public void testExpiry() {
+        SignatureCache cache = new VerificationCache(10, 0);
+        Object publicKeys = new Object();
+        byte[] hash = Hash.sha256("<p>content</p>");
+
+        cache.put(hash, signature, publicKeys);
+        Assert.assertFalse(cache.contains(hash, signature, publicKeys));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        SignatureCache cache = new VerificationCache(2, 300);
+        Object publicKeys = new Object();
+
+        for (int i = 0; i < 3; i++) {
+            cache.put(Hash.sha256("<p>" + i + "</p>"), signature, publicKeys);
+        }
+        Assert.assertEquals(2, cache.size());
+        Assert.assertFalse(cache.contains(Hash.sha256("<p>0</p>"), signature, publicKeys));
+        Assert.assertTrue(cache.contains(Hash.sha256("<p>2</p>"), signature, publicKeys));
+    }
+
+    @Test
+    public void testKeyRefresh() {
+        SignatureCache cache = new VerificationCache(10, 300);
+        byte[] hash = Hash.sha256("<p>content</p>");
+
+        cache.put(hash, signature, new Object());
+        Assert.assertFalse(cache.contains(hash, signature, new Object()));
+    }
+
+    @Test
+    public void testSharedByKeySets() {
+        SignatureCache cache = new VerificationCache(10, 300);
+        Object sandboxKeys = new Object();
+        Object productionKeys = new Object();
+        byte[] sandboxHash = Hash.sha256("<p>sandbox</p>");
+        byte[] productionHash = Hash.sha256("<p>production</p>");
+
+        cache.put(sandboxHash, signature, sandboxKeys);
+        cache.put(productionHash, signature, productionKeys);
+
+        Assert.assertTrue(cache.contains(sandboxHash, signature, sandboxKeys));
+        Assert.assertTrue(cache.contains(productionHash, signature, productionKeys));
+        Assert.assertFalse(cache.contains(sandboxHash, signature, productionKeys));
+        Assert.assertTrue(cache.contains(sandboxHash, signature, sandboxKeys));
+    }
+}